@@ -0,0 +1,87 @@
+package geo.benchmark;
+
+import geo.delaunay.DelaunayTriangulator;
+import geo.delaunay.FaceSearcher;
+import geo.delaunay.FaceWalker;
+import geo.delaunay.PointLocator;
+import geo.delaunay.TriangleFace;
+import geo.state.GameState;
+import geo.store.halfedge.Vertex;
+import geo.store.math.Point2d;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Measure the time and the amount of allocated memory of point location queries, for both point locators.
+ * The allocation counters of the thread are used, so the result is exact and not influenced by garbage collection.
+ *
+ * Usage: PointLocationBenchmark [amount of points] [amount of queries]
+ */
+public class PointLocationBenchmark {
+    // The size of the board the points are placed on.
+    private static final int WIDTH = 1200, HEIGHT = 800;
+
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+
+        // The allocation counters are an extension of the standard thread bean.
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        // Generate the points of the board, and the query points.
+        Random random = new Random(n);
+        Set<Long> positions = new HashSet<>();
+        List<Vertex<TriangleFace>> points = new ArrayList<>(n);
+        while(points.size() < n) {
+            int x = random.nextInt(WIDTH);
+            int y = random.nextInt(HEIGHT);
+            if(positions.add((long) x * HEIGHT + y)) points.add(new Vertex<>(x, y, GameState.PlayerTurn.RED));
+        }
+        Point2d[] targets = new Point2d[queries];
+        for(int i = 0; i < queries; i++) {
+            targets[i] = new Point2d(random.nextDouble() * WIDTH, random.nextDouble() * HEIGHT);
+        }
+
+        for(String name : new String[]{"history DAG", "walk"}) {
+            // Build the triangulation by inserting the points one by one, such that the DAG has a history.
+            PointLocator locator = name.equals("walk") ? new FaceWalker() : new FaceSearcher();
+            new DelaunayTriangulator(locator).insertAll(points, random);
+
+            // Warm up both code paths, such that the allocations of the JIT compiler are not counted.
+            TriangleFace.ContainsResult result = new TriangleFace.ContainsResult();
+            for(int i = 0; i < queries; i++) {
+                locator.findFace(targets[i], result);
+                locator.findFace(targets[i]);
+            }
+
+            // Measure the queries that write into a reusable result.
+            long bytes = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            int found = 0;
+            for(int i = 0; i < queries; i++) {
+                if(locator.findFace(targets[i], result)) found++;
+            }
+            long time = System.nanoTime() - start;
+            bytes = threads.getThreadAllocatedBytes(thread) - bytes;
+            System.out.printf("%-12s reused result    %8.1f ns/query %8.1f bytes/query (%d found)%n",
+                    name, (double) time / queries, (double) bytes / queries, found);
+
+            // Measure the queries that allocate a new result, for comparison.
+            bytes = threads.getThreadAllocatedBytes(thread);
+            start = System.nanoTime();
+            for(int i = 0; i < queries; i++) {
+                locator.findFace(targets[i]);
+            }
+            time = System.nanoTime() - start;
+            bytes = threads.getThreadAllocatedBytes(thread) - bytes;
+            System.out.printf("%-12s allocated result %8.1f ns/query %8.1f bytes/query%n",
+                    name, (double) time / queries, (double) bytes / queries);
+        }
+    }
+}
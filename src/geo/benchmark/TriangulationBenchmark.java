@@ -0,0 +1,176 @@
+package geo.benchmark;
+
+import geo.delaunay.BatchTriangulator;
+import geo.delaunay.DelaunayTriangulator;
+import geo.delaunay.DivideAndConquerTriangulator;
+import geo.delaunay.FaceWalker;
+import geo.delaunay.SweepHullTriangulator;
+import geo.delaunay.TriangleFace;
+import geo.state.GameState;
+import geo.store.halfedge.IndexedMesh;
+import geo.store.halfedge.Vertex;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compare the time needed to triangulate a board with the different triangulation engines.
+ * The points are generated in the same way as the random and grid AI players do, on a board of a fixed size.
+ * For the incremental engine, the edge flip statistics of the last run are printed as well.
+ * The "indexed sweep-hull" engine runs the sweep-hull on the coordinate arrays, and produces an {@link IndexedMesh}
+ * instead of objects. For both sweep-hull engines, the heap memory retained by the triangulation is reported per point,
+ * including the points themselves.
+ *
+ * Usage: TriangulationBenchmark [amount of points] [amount of runs]
+ */
+public class TriangulationBenchmark {
+    // The size of the board the points are placed on.
+    private static final int WIDTH = 1200, HEIGHT = 800;
+
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        for(String distribution : new String[]{"uniform", "grid"}) {
+            for(String engine : new String[]{"incremental", "divide and conquer", "sweep-hull"}) {
+                // Take the best time over all runs, where the first run warms up the JIT compiler.
+                long best = Long.MAX_VALUE;
+                DelaunayTriangulator triangulator = null;
+                for(int run = 0; run <= runs; run++) {
+                    List<Vertex<TriangleFace>> points = distribution.equals("uniform") ? uniform(n, run) : grid(n);
+                    triangulator = new DelaunayTriangulator(new FaceWalker(), create(engine));
+
+                    long start = System.nanoTime();
+                    triangulator.insertAll(points, new Random(run));
+                    long time = System.nanoTime() - start;
+                    if(run > 0) best = Math.min(best, time);
+                }
+                System.out.printf("%-8s %-20s n=%-8d %10.2f ms%n", distribution, engine, n, best / 1e6);
+
+                // The incremental engine legalizes after every insertion, so report the flips of the last run.
+                if(engine.equals("incremental")) {
+                    System.out.printf("         %s%n", triangulator.getLegalizationStats());
+                }
+            }
+
+            // The indexed engine gets the coordinates as arrays, which are converted outside of the timed part.
+            long best = Long.MAX_VALUE;
+            for(int run = 0; run <= runs; run++) {
+                List<Vertex<TriangleFace>> points = distribution.equals("uniform") ? uniform(n, run) : grid(n);
+                double[] x = new double[n], y = new double[n];
+                byte[] owner = new byte[n];
+                toArrays(points, x, y, owner);
+
+                long start = System.nanoTime();
+                new SweepHullTriangulator().triangulate(x, y, owner);
+                long time = System.nanoTime() - start;
+                if(run > 0) best = Math.min(best, time);
+            }
+            System.out.printf("%-8s %-20s n=%-8d %10.2f ms%n", distribution, "indexed sweep-hull", n, best / 1e6);
+
+            // Measure the memory that is retained by both representations of the same triangulation.
+            long before = usedMemory();
+            List<Vertex<TriangleFace>> points = distribution.equals("uniform") ? uniform(n, 0) : grid(n);
+            DelaunayTriangulator triangulator = new DelaunayTriangulator(new FaceWalker(), create("sweep-hull"));
+            triangulator.insertAll(points, new Random(0));
+            long objects = usedMemory() - before;
+            System.out.printf("%-8s %-20s n=%-8d %10.1f bytes per point (%d faces)%n",
+                    distribution, "sweep-hull", n, (double) objects / n, triangulator.getTriangulatedFaces().size());
+            points = null;
+            triangulator = null;
+
+            before = usedMemory();
+            points = distribution.equals("uniform") ? uniform(n, 0) : grid(n);
+            double[] x = new double[n], y = new double[n];
+            byte[] owner = new byte[n];
+            toArrays(points, x, y, owner);
+            points = null;
+            IndexedMesh mesh = new SweepHullTriangulator().triangulate(x, y, owner);
+            long indexed = usedMemory() - before;
+            System.out.printf("%-8s %-20s n=%-8d %10.1f bytes per point (%d faces)%n",
+                    distribution, "indexed sweep-hull", n, (double) indexed / n, mesh.faceCount());
+        }
+    }
+
+    /**
+     * Copy the coordinates and owners of the points to the given arrays.
+     */
+    private static void toArrays(List<Vertex<TriangleFace>> points, double[] x, double[] y, byte[] owner) {
+        for(int i = 0; i < points.size(); i++) {
+            Vertex<TriangleFace> v = points.get(i);
+            x[i] = v.x;
+            y[i] = v.y;
+            owner[i] = (byte) v.player.ordinal();
+        }
+    }
+
+    /**
+     * Get the amount of heap memory that is in use, after collecting the garbage.
+     */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Create the batch engine with the given name.
+     *
+     * @param engine The name of the engine.
+     * @return The engine, or null if the points should be inserted incrementally.
+     */
+    private static BatchTriangulator create(String engine) {
+        switch(engine) {
+            case "divide and conquer":
+                return new DivideAndConquerTriangulator();
+            case "sweep-hull":
+                return new SweepHullTriangulator();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Generate points at distinct random integer positions on the board, like the random AI player.
+     *
+     * @param n The amount of points.
+     * @param seed The seed of the random generator.
+     * @return The generated points.
+     */
+    private static List<Vertex<TriangleFace>> uniform(int n, long seed) {
+        Random generator = new Random(seed);
+        Set<Long> positions = new HashSet<>();
+        List<Vertex<TriangleFace>> points = new ArrayList<>(n);
+        while(points.size() < n) {
+            int x = generator.nextInt(WIDTH);
+            int y = generator.nextInt(HEIGHT);
+            if(positions.add((long) x * HEIGHT + y)) points.add(new Vertex<>(x, y, GameState.PlayerTurn.RED));
+        }
+        return points;
+    }
+
+    /**
+     * Generate points in rows of equal width cells on the board, like the grid AI player.
+     *
+     * @param n The amount of points.
+     * @return The generated points.
+     */
+    private static List<Vertex<TriangleFace>> grid(int n) {
+        List<Vertex<TriangleFace>> points = new ArrayList<>(n);
+        int rows = (int) Math.ceil(Math.sqrt(n));
+        int remainingPoints = n;
+        for(int i = 0; i < rows; i++) {
+            int y = HEIGHT / rows * i + HEIGHT / rows / 2;
+            int columns = (int) Math.ceil((double) remainingPoints / (rows - i));
+            for(int j = 0; j < columns; j++) {
+                int x = WIDTH / columns * j + WIDTH / columns / 2;
+                points.add(new Vertex<>(x, y, GameState.PlayerTurn.RED));
+            }
+            remainingPoints -= columns;
+        }
+        return points;
+    }
+}
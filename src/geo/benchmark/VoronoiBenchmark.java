@@ -0,0 +1,88 @@
+package geo.benchmark;
+
+import geo.delaunay.DelaunayTriangulator;
+import geo.delaunay.DivideAndConquerTriangulator;
+import geo.delaunay.FaceWalker;
+import geo.delaunay.TriangleFace;
+import geo.state.GameState;
+import geo.store.halfedge.Vertex;
+import geo.store.math.Rectangle2d;
+import geo.util.ConvexClipping;
+import geo.voronoi.FortuneSweep;
+import geo.voronoi.VoronoiDiagram;
+
+import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compare the time and the amount of allocated memory needed to find the areas of the players, between the dual of
+ * the Delaunay triangulation and Fortune's sweep line algorithm.
+ *
+ * Usage: VoronoiBenchmark [amount of points] [amount of runs]
+ */
+public class VoronoiBenchmark {
+    // The size of the board the points are placed on.
+    private static final int WIDTH = 1200, HEIGHT = 800;
+
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        Rectangle2d clippingArea = ConvexClipping.getClippingArea(new Dimension(WIDTH, HEIGHT));
+
+        // The allocation counters are an extension of the standard thread bean.
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for(String engine : new String[]{"dual", "fortune"}) {
+            // Take the best time over all runs, where the first run warms up the JIT compiler.
+            long best = Long.MAX_VALUE, bytes = 0;
+            double area = 0;
+            for(int run = 0; run <= runs; run++) {
+                List<Vertex<TriangleFace>> points = uniform(n, run);
+
+                long allocated = threads.getThreadAllocatedBytes(thread);
+                long start = System.nanoTime();
+                VoronoiDiagram diagram;
+                if(engine.equals("fortune")) {
+                    diagram = FortuneSweep.createDiagram(points, clippingArea);
+                } else {
+                    new DelaunayTriangulator(new FaceWalker(), new DivideAndConquerTriangulator())
+                            .insertAll(points, new Random(run));
+                    diagram = new VoronoiDiagram(points, clippingArea);
+                }
+                long time = System.nanoTime() - start;
+                if(run > 0) {
+                    best = Math.min(best, time);
+                    bytes = threads.getThreadAllocatedBytes(thread) - allocated;
+                    area = diagram.getAreaRed() + diagram.getAreaBlue();
+                }
+            }
+            System.out.printf("%-8s n=%-8d %10.2f ms %10.1f bytes/point (area %.1f)%n",
+                    engine, n, best / 1e6, (double) bytes / n, area);
+        }
+    }
+
+    /**
+     * Generate points at distinct random integer positions on the board, like the random AI player.
+     *
+     * @param n The amount of points.
+     * @param seed The seed of the random generator.
+     * @return The generated points.
+     */
+    private static List<Vertex<TriangleFace>> uniform(int n, long seed) {
+        Random generator = new Random(seed);
+        Set<Long> positions = new HashSet<>();
+        List<Vertex<TriangleFace>> points = new ArrayList<>(n);
+        while(points.size() < n) {
+            int x = generator.nextInt(WIDTH);
+            int y = generator.nextInt(HEIGHT);
+            if(positions.add((long) x * HEIGHT + y)) points.add(new Vertex<>(x, y, GameState.PlayerTurn.RED));
+        }
+        return points;
+    }
+}
@@ -0,0 +1,22 @@
+package geo.delaunay;
+
+import geo.store.halfedge.Vertex;
+
+import java.util.List;
+
+/**
+ * An engine that constructs the Delaunay triangulation of a complete set of points in one go.
+ */
+public interface BatchTriangulator {
+    /**
+     * Construct the Delaunay triangulation of the given vertices.
+     *
+     * The faces are created with the usual half-edge structures. The half-edges on the outside of the convex hull
+     * do not have an incident face or next edge yet, such that the mesh can connect them to its outer face.
+     *
+     * @param context The context of the mesh the faces will be part of.
+     * @param vertices The vertices to triangulate, which are all at different positions.
+     * @return The faces of the triangulation.
+     */
+    List<TriangleFace> triangulate(MeshContext context, List<Vertex<TriangleFace>> vertices);
+}
@@ -2,7 +2,9 @@ package geo.delaunay;
 
 import geo.store.halfedge.Edge;
 import geo.store.halfedge.Vertex;
+import geo.store.math.Point2d;
 import geo.store.math.Triangle2d;
+import geo.util.Predicates;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -12,16 +14,55 @@ import java.util.stream.Collectors;
  */
 public class DelaunayMesh {
     // The face hierarchy, such that we can easily find the face that contains a specific point.
-    private final FaceSearcher faceIndex = new FaceSearcher();
+    private final PointLocator faceIndex;
+
+    // The context that owns the face ids, the outer face and the symbolic corners of the bounding triangle.
+    private final MeshContext context;
+
+    // The symbolic corners of the bounding triangle.
+    private final List<Vertex<TriangleFace>> corners;
+
+    // The amount of vertices inserted into the mesh, excluding the symbolic corners.
+    private int size = 0;
+
+    // The holder in which the point locator writes the location of the vertex that is being inserted.
+    private final TriangleFace.ContainsResult location = new TriangleFace.ContainsResult();
+
+    // The listeners that are notified of every change to the faces of the mesh.
+    private final List<MeshListener> listeners = new ArrayList<>();
 
     /**
      * Initialize the triangle mesh, with a very large triangle in the initial state.
+     * The history DAG is used to find the faces that contain points.
      */
     public DelaunayMesh() {
+        this(new FaceSearcher());
+    }
+
+    /**
+     * Initialize the triangle mesh, with a very large triangle in the initial state.
+     *
+     * @param faceIndex The structure used to find the faces that contain points.
+     */
+    public DelaunayMesh(PointLocator faceIndex) {
+        this(new MeshContext(), faceIndex);
+    }
+
+    /**
+     * Initialize the triangle mesh, with a very large triangle in the initial state.
+     *
+     * @param context The context of the mesh, which should not be shared with any other mesh.
+     * @param faceIndex The structure used to find the faces that contain points.
+     */
+    public DelaunayMesh(MeshContext context, PointLocator faceIndex) {
+        this.context = context;
+        this.faceIndex = faceIndex;
+
         // Initially, we should have a triangle already of sufficient size.
-        Vertex<TriangleFace> v1 = new Vertex.SymbolicVertex<>(-10e6, -10e6);
-        Vertex<TriangleFace> v2 = new Vertex.SymbolicVertex<>(10e6, -10e6);
-        Vertex<TriangleFace> v3 = new Vertex.SymbolicVertex<>(0, 10e6);
+        corners = context.corners;
+        Vertex<TriangleFace> v1 = corners.get(0);
+        Vertex<TriangleFace> v2 = corners.get(1);
+        Vertex<TriangleFace> v3 = corners.get(2);
 
 //        Vertex<TriangleFace> v1 = new Vertex<>(10, 500 + 120, GameState.Player.RED);
 //        Vertex<TriangleFace> v2 = new Vertex<>(0.5 * 1910, 500 + 120, GameState.Player.RED);
@@ -33,7 +74,7 @@ public class DelaunayMesh {
         Edge<TriangleFace> v3_v1 = new Edge<>(v3, v1);
 
         // Create a new triangle face with these points as the corners.
-        TriangleFace face = new TriangleFace(v1_v2, v2_v3, v3_v1);
+        TriangleFace face = new TriangleFace(context, v1_v2, v2_v3, v3_v1);
 
         // The outside of this face has not been configured yet.
         v1_v2.twin.setNext(v3_v1.twin);
@@ -41,10 +82,10 @@ public class DelaunayMesh {
         v2_v3.twin.setNext(v1_v2.twin);
 
         // Make sure the outer face points to an edge, v1_v2 suffices.
-        TriangleFace.outerFace.outerComponent = v1_v2.twin;
+        context.outerFace.outerComponent = v1_v2.twin;
 
         // Make the outer edges all point to the outer face.
-        v1_v2.twin.incidentFace = v2_v3.twin.incidentFace = v3_v1.twin.incidentFace = TriangleFace.outerFace;
+        v1_v2.twin.incidentFace = v2_v3.twin.incidentFace = v3_v1.twin.incidentFace = context.outerFace;
 
         // We have to register this face in the searcher as a root face.
         faceIndex.insertRootFace(face);
@@ -59,14 +100,15 @@ public class DelaunayMesh {
      */
     public void insertVertex(Vertex<TriangleFace> v) throws PointInsertedInOuterFaceException, EdgeNotFoundException {
         // Start by finding the face that contains the vertex.
-        TriangleFace.ContainsResult result = faceIndex.findFace(v);
+        TriangleFace.ContainsResult result = location;
 
         // If this face is the outer face, something is wrong and we should terminate.
-        if(result == null) {
+        if(!faceIndex.findFace(v, result)) {
             throw new PointInsertedInOuterFaceException(v);
         }
 
         // Now, we should find out of it is inside of the triangle, or on one of the edges.
+        size++;
         if(result.location == TriangleFace.Location.INSIDE) {
 
 //            System.out.println("Inserting " + v + " in face " + face);
@@ -79,6 +121,46 @@ public class DelaunayMesh {
         }
     }
 
+    /**
+     * Replace the initial triangle by the triangulation of the given vertices, constructed in one go.
+     * This can only be done while no vertices have been inserted into the mesh yet.
+     *
+     * @param triangulator The engine that constructs the triangulation.
+     * @param vertices The vertices that should be inserted.
+     */
+    public void build(BatchTriangulator triangulator, List<Vertex<TriangleFace>> vertices) {
+        if(size > 0) {
+            throw new IllegalStateException("A triangulation can only be built in one go in an empty mesh.");
+        }
+
+        // The corners of the bounding triangle are part of the input, such that they form the convex hull.
+        List<Vertex<TriangleFace>> input = new ArrayList<>(corners);
+        input.addAll(vertices);
+        List<TriangleFace> faces = triangulator.triangulate(context, input);
+
+        // The half-edges along the convex hull do not have a face yet, so link them into a cycle around the outer face.
+        Map<Vertex<TriangleFace>, Edge<TriangleFace>> hull = new IdentityHashMap<>();
+        for(TriangleFace face : faces) {
+            for(Edge<TriangleFace> e : face) {
+                if(e.twin.incidentFace == null) hull.put(e.twin.origin, e.twin);
+            }
+        }
+        for(Edge<TriangleFace> e : hull.values()) {
+            e.setNext(hull.get(e.twin.origin));
+            e.incidentFace = context.outerFace;
+        }
+        context.outerFace.outerComponent = hull.get(corners.get(0));
+
+        // The point location structure should start over with the new faces.
+        faceIndex.reset(faces);
+        size = vertices.size();
+
+        // The listeners should start over as well.
+        for(MeshListener listener : listeners) {
+            listener.meshRebuilt(faces);
+        }
+    }
+
     /**
      * Insert a vertex inside the given face.
      *
@@ -99,11 +181,11 @@ public class DelaunayMesh {
             Edge<TriangleFace> v1_v2 = edges.get(i);
             Edge<TriangleFace> v2_v = connectors.get((i + 1) % edges.size());
             Edge<TriangleFace> v_v1 = connectors.get(i).twin;
-            faces.add(new TriangleFace(v1_v2, v2_v, v_v1));
+            faces.add(new TriangleFace(context, v1_v2, v2_v, v_v1));
         }
 
         // Replace the original face by the new faces.
-        faceIndex.replaceFaces(Collections.singletonList(face), faces);
+        replaceFaces(Collections.singletonList(face), faces);
     }
 
     private void insertVertexOnEdge(Vertex<TriangleFace> v, Edge<TriangleFace> edge) {
@@ -124,12 +206,25 @@ public class DelaunayMesh {
             Edge<TriangleFace> v1_v2 = edges.get(i);
             Edge<TriangleFace> v2_v = connectors.get((i + 1) % edges.size());
             Edge<TriangleFace> v_v1 = connectors.get(i).twin;
-            faces.add(new TriangleFace(v1_v2, v2_v, v_v1));
+            faces.add(new TriangleFace(context, v1_v2, v2_v, v_v1));
         }
 
         // Replace the two original faces by the new faces.
-        faceIndex.replaceFaces(Collections.singletonList(edge.incidentFace), faces.subList(0,2));
-        faceIndex.replaceFaces(Collections.singletonList(edge.twin.incidentFace), faces.subList(2, 4));
+        replaceFaces(Collections.singletonList(edge.incidentFace), faces.subList(0,2));
+        replaceFaces(Collections.singletonList(edge.twin.incidentFace), faces.subList(2, 4));
+    }
+
+    /**
+     * Replace the given faces by the replacement faces in the point location structure, and notify the listeners.
+     *
+     * @param original The faces that are currently part of the triangulation.
+     * @param replacement The faces we want to replace the original faces with.
+     */
+    private void replaceFaces(List<TriangleFace> original, List<TriangleFace> replacement) {
+        faceIndex.replaceFaces(original, replacement);
+        for(MeshListener listener : listeners) {
+            listener.facesReplaced(original, replacement);
+        }
     }
 
 
@@ -170,11 +265,91 @@ public class DelaunayMesh {
         Edge<TriangleFace> v2_v1 = new Edge<>(v2, v1);
 
         // Create the new faces.
-        TriangleFace f1 = new TriangleFace(v2_v1, tl, bl);
-        TriangleFace f2 = new TriangleFace(v2_v1.twin, br, tr);
+        TriangleFace f1 = new TriangleFace(context, v2_v1, tl, bl);
+        TriangleFace f2 = new TriangleFace(context, v2_v1.twin, br, tr);
 
         // We replace the original faces with two other faces.
-        faceIndex.replaceFaces(Arrays.asList(e.incidentFace, e.twin.incidentFace), Arrays.asList(f1, f2));
+        replaceFaces(Arrays.asList(e.incidentFace, e.twin.incidentFace), Arrays.asList(f1, f2));
+    }
+
+    /**
+     * Remove a vertex from the mesh, and re-triangulate the hole it leaves behind.
+     * Only the faces in the star of the vertex are replaced, such that the rest of the triangulation is untouched.
+     *
+     * @param v The vertex that should be removed.
+     */
+    public void removeVertex(Vertex<TriangleFace> v) {
+        // The corners of the bounding triangle should always remain part of the mesh.
+        if(v instanceof Vertex.SymbolicVertex) {
+            throw new IllegalArgumentException("Symbolic vertices cannot be removed from the mesh.");
+        }
+
+        // The edges originating from v, and the faces that will disappear together with them.
+        List<Edge<TriangleFace>> spokes = v.edges();
+        List<TriangleFace> faces = spokes.stream().map(e -> e.incidentFace).collect(Collectors.toList());
+
+        // The edges opposing v form the boundary of the hole. The spokes are visited in CW order, so reverse the
+        // list of opposing edges to get a cycle in CCW order.
+        List<Edge<TriangleFace>> boundary = spokes.stream().map(Edge::next).collect(Collectors.toList());
+        Collections.reverse(boundary);
+
+        // Make sure that the vertices on the boundary no longer refer to one of the removed spokes.
+        for(Edge<TriangleFace> e : boundary) {
+            e.origin.incidentEdge = e;
+        }
+
+        // Cut off Delaunay ears until only a single triangle remains.
+        List<TriangleFace> replacement = new ArrayList<>();
+        while(boundary.size() > 3) {
+            int i = findDelaunayEar(boundary);
+            Edge<TriangleFace> e1 = boundary.get(i);
+            Edge<TriangleFace> e2 = boundary.get((i + 1) % boundary.size());
+
+            // Close the ear with a new edge, and let the twin of the new edge take the place of the ear in the cycle.
+            Edge<TriangleFace> diagonal = new Edge<>(e2.twin.origin, e1.origin);
+            replacement.add(new TriangleFace(context, e1, e2, diagonal));
+            boundary.set(i, diagonal.twin);
+            boundary.remove((i + 1) % boundary.size());
+        }
+        replacement.add(new TriangleFace(context, boundary.get(0), boundary.get(1), boundary.get(2)));
+
+        // The vertex is no longer part of the mesh.
+        v.incidentEdge = null;
+        size--;
+
+        // Replace the star of the vertex by the new faces.
+        replaceFaces(faces, replacement);
+    }
+
+    /**
+     * Find an ear in the given polygon that is part of the Delaunay triangulation of the polygon's corner points.
+     * Such an ear is convex, and its circum circle does not contain any of the other corner points.
+     *
+     * @param boundary The edges of the polygon, in CCW order.
+     * @return The index i of the edge such that edges i and i + 1 form the ear.
+     */
+    private int findDelaunayEar(List<Edge<TriangleFace>> boundary) {
+        // Remember the first convex ear, which we can fall back on when rounding errors prevent an empty circle.
+        int fallback = -1;
+
+        for(int i = 0; i < boundary.size(); i++) {
+            Vertex<TriangleFace> a = boundary.get(i).origin;
+            Vertex<TriangleFace> b = boundary.get((i + 1) % boundary.size()).origin;
+            Vertex<TriangleFace> c = boundary.get((i + 2) % boundary.size()).origin;
+
+            // The ear has to make a left turn, otherwise it is not inside of the polygon.
+            if(Predicates.orient2d(a, b, c) <= 0) continue;
+            if(fallback == -1) fallback = i;
+
+            // Check whether any of the other corner points is inside of the circum circle of the ear.
+            Triangle2d ear = new Triangle2d(a, b, c);
+            boolean empty = true;
+            for(int j = 3; j < boundary.size() && empty; j++) {
+                empty = !ear.circumCircleContains(boundary.get((i + j) % boundary.size()).origin);
+            }
+            if(empty) return i;
+        }
+        return fallback;
     }
 
     /**
@@ -207,12 +382,52 @@ public class DelaunayMesh {
         }
     }
 
+    /**
+     * Find the face that contains the given point, without allocating any objects.
+     *
+     * @param p The point we want to locate.
+     * @param result The holder in which the containment result of the face that contains the point is written.
+     * @return True if the point has been found, false if the point is in the outer face.
+     */
+    public boolean locate(Point2d p, TriangleFace.ContainsResult result) {
+        return faceIndex.findFace(p, result);
+    }
+
+    /**
+     * Get the amount of vertices in the mesh.
+     *
+     * @return The amount of vertices that have been inserted and not removed, excluding the symbolic corners.
+     */
+    public int size() {
+        return size;
+    }
+
     /**
      * Get all the visible faces.
      *
      * @return The faces that are leaves of the DAG and the outer face.
      */
     public Set<TriangleFace> getTriangulatedFaces() {
-        return faceIndex.getTriangulatedFaces();
+        Set<TriangleFace> faces = faceIndex.getTriangulatedFaces();
+        faces.add(context.outerFace);
+        return faces;
+    }
+
+    /**
+     * Register a listener that is notified of every change to the faces of the mesh.
+     *
+     * @param listener The listener to notify.
+     */
+    public void addListener(MeshListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Get the context of the mesh.
+     *
+     * @return The context that owns the outer face and the symbolic corners of the mesh.
+     */
+    public MeshContext getContext() {
+        return context;
     }
 }
@@ -1,8 +1,12 @@
 package geo.delaunay;
 
-import geo.store.halfedge.Edge;
 import geo.store.halfedge.Vertex;
+import geo.util.HilbertCurve;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 /**
@@ -10,7 +14,50 @@ import java.util.Set;
  */
 public class DelaunayTriangulator {
     // The triangulation will be stored in the triangulation mesh.
-    private final DelaunayMesh mesh = new DelaunayMesh();
+    private final DelaunayMesh mesh;
+
+    // The engine used to triangulate batches of points in one go while the mesh is empty, null if not available.
+    private final BatchTriangulator batchTriangulator;
+
+    // Flips the edges that become illegal when inserting vertices one by one.
+    private final EdgeLegalizer legalizer;
+
+    // Finds the vertices of the mesh that are close to a point.
+    private final ProximitySearch proximitySearch;
+
+    // The size of the first round in a biased randomized insertion order. Smaller batches are sorted as a whole.
+    private static final int MIN_ROUND_SIZE = 64;
+
+    /**
+     * Create a triangulator that uses the history DAG for point location.
+     */
+    public DelaunayTriangulator() {
+        this(new FaceSearcher());
+    }
+
+    /**
+     * Create a triangulator that uses the given structure for point location.
+     *
+     * @param locator The structure used to find the faces that contain points, e.g. a {@link FaceWalker}.
+     */
+    public DelaunayTriangulator(PointLocator locator) {
+        this(locator, null);
+    }
+
+    /**
+     * Create a triangulator that uses the given structure for point location, and builds the triangulation of the
+     * first batch of points with the given engine.
+     *
+     * @param locator The structure used to find the faces that contain points, e.g. a {@link FaceWalker}.
+     * @param batchTriangulator The engine used for batches inserted into an empty mesh, or null to always insert
+     *                          points incrementally.
+     */
+    public DelaunayTriangulator(PointLocator locator, BatchTriangulator batchTriangulator) {
+        mesh = new DelaunayMesh(locator);
+        this.batchTriangulator = batchTriangulator;
+        legalizer = new EdgeLegalizer(mesh);
+        proximitySearch = new ProximitySearch(mesh);
+    }
 
     /**
      * Insert a vertex into the mesh, and triangulate it.
@@ -26,43 +73,91 @@ public class DelaunayTriangulator {
         mesh.insertVertex(v);
 
         // Now, legalize all the edges on the opposite side of v in the triangles surrounding v.
-        for(Edge<TriangleFace> e : v) {
-            // Legalize the edge e.next, which is the edge opposing v.
-            legalizeEdge(e.next());
-        }
+        legalizer.legalizeAround(v);
     }
 
     /**
-     * Legalize the given edge, if illegal.
+     * Insert a collection of vertices into the mesh using a biased randomized insertion order, and triangulate them.
+     * The vertices are added to the existing triangulation, such that only the affected edges are legalized.
+     *
+     * The shuffled vertices are divided into rounds, where each round is twice as large as the previous one. Within a
+     * round, the vertices are sorted along a Hilbert curve, such that consecutive insertions are close to each other.
+     * This keeps the expected running time of the randomized incremental construction, while point location can
+     * start close to the previously inserted vertex.
+     *
+     * If the mesh is still empty and a batch engine is available, the triangulation is built by the engine instead.
      *
-     * @param e The edge we want to legalize.
+     * @param vertices The vertices we want to insert.
+     * @param random The random instance used to shuffle the insertion order.
+     * @throws DelaunayMesh.PointInsertedInOuterFaceException If one of the points is contained in the outer face.
+     * @throws DelaunayMesh.EdgeNotFoundException If one of the points is on an edge, but the edge cannot be found.
      */
-    private void legalizeEdge(Edge<TriangleFace> e) {
-        /* The situation is as follows
-
-                                v1
-                              /    \
-                             /      \
-                           tl        tr
-                          /            \
-                         v -- e ------- w
-                         v -- e.twin -- w
-                          \            /
-                           bl        br
-                             \      /
-                              \    /
-                                v2
-         */
-
-        // If the edge is illegal, swap it.
-        if(e.incidentFace.isIllegal(e)) {
-            // Swappy.
-            mesh.swapEdge(e);
-
-            // Now, we want to legalize edges bl and br.
-            legalizeEdge(e.twin.next());
-            legalizeEdge(e.twin.previous());
+    public void insertAll(List<Vertex<TriangleFace>> vertices, Random random) throws DelaunayMesh.EdgeNotFoundException,
+            DelaunayMesh.PointInsertedInOuterFaceException {
+
+        // When we have all the points up front, the batch engine can build the triangulation in one go.
+        if(batchTriangulator != null && mesh.size() == 0 && !vertices.isEmpty()) {
+            mesh.build(batchTriangulator, vertices);
+            return;
+        }
+
+        // We have to enforce randomized incremental construction to keep the expected running time.
+        List<Vertex<TriangleFace>> order = new ArrayList<>(vertices);
+        Collections.shuffle(order, random);
+
+        // Determine the start of each round, where the last round contains half of the vertices and so on.
+        List<Integer> starts = new ArrayList<>();
+        for(int start = order.size() / 2; start >= MIN_ROUND_SIZE; start /= 2) {
+            starts.add(0, start);
         }
+        starts.add(0, 0);
+        starts.add(order.size());
+
+        // Sort the rounds along the curve, and insert the vertices one by one.
+        for(int i = 0; i < starts.size() - 1; i++) {
+            List<Vertex<TriangleFace>> round = order.subList(starts.get(i), starts.get(i + 1));
+            HilbertCurve.sort(round);
+            for(Vertex<TriangleFace> v : round) {
+                insert(v);
+            }
+        }
+    }
+
+    /**
+     * Remove a vertex from the mesh, and re-triangulate the hole it leaves behind.
+     *
+     * @param v The vertex we want to remove.
+     */
+    public void remove(Vertex<TriangleFace> v) {
+        // The hole is filled with Delaunay triangles directly, so no edges have to be legalized afterwards.
+        mesh.removeVertex(v);
+    }
+
+    /**
+     * Register a listener that is notified of every change to the faces of the triangulation.
+     *
+     * @param listener The listener to notify.
+     */
+    public void addMeshListener(MeshListener listener) {
+        mesh.addListener(listener);
+    }
+
+    /**
+     * Get the statistics on the edge flips done while inserting vertices one by one.
+     *
+     * @return The statistics, which are updated after every insertion.
+     */
+    public LegalizationStats getLegalizationStats() {
+        return legalizer.getStats();
+    }
+
+    /**
+     * Get the search for the vertices close to a point, which follows the changes to the triangulation.
+     *
+     * @return The proximity search over the mesh.
+     */
+    public ProximitySearch getProximitySearch() {
+        return proximitySearch;
     }
 
     /**
@@ -73,4 +168,13 @@ public class DelaunayTriangulator {
     public Set<TriangleFace> getTriangulatedFaces() {
         return mesh.getTriangulatedFaces();
     }
+
+    /**
+     * Get the face on the outside of the bounding triangle.
+     *
+     * @return The outer face of the mesh.
+     */
+    public TriangleFace getOuterFace() {
+        return mesh.getContext().outerFace;
+    }
 }
@@ -0,0 +1,289 @@
+package geo.delaunay;
+
+import geo.store.halfedge.Edge;
+import geo.store.halfedge.Vertex;
+import geo.store.math.Point2d;
+import geo.util.Predicates;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Construct the Delaunay triangulation with the divide and conquer algorithm of Guibas and Stolfi.
+ * The points are sorted by x-coordinate, both halves are triangulated recursively, and the two halves are merged by
+ * zipping them together from the bottom to the top. No point location structure is needed.
+ */
+public class DivideAndConquerTriangulator implements BatchTriangulator {
+    /**
+     * Construct the Delaunay triangulation of the given vertices.
+     *
+     * @param context The context of the mesh the faces will be part of.
+     * @param vertices The vertices to triangulate, which are all at different positions.
+     * @return The faces of the triangulation.
+     */
+    @Override
+    public List<TriangleFace> triangulate(MeshContext context, List<Vertex<TriangleFace>> vertices) {
+        // Sort the vertices by x-coordinate, and by y-coordinate in case of ties.
+        List<Vertex<TriangleFace>> sorted = new ArrayList<>(vertices);
+        sorted.sort(Comparator.<Vertex<TriangleFace>>comparingDouble(v -> v.x).thenComparingDouble(v -> v.y));
+
+        // Triangulate, while keeping track of all edges that have been created.
+        List<QuadEdge> edges = new ArrayList<>();
+        triangulate(sorted, 0, sorted.size(), edges);
+
+        // Convert the result to the half-edge structure.
+        return toFaces(context, edges);
+    }
+
+    /**
+     * Triangulate the vertices in the given range of the sorted list.
+     *
+     * @param vertices The vertices sorted by x-coordinate.
+     * @param from The first index of the range, inclusive.
+     * @param to The last index of the range, exclusive.
+     * @param edges The list in which all created edges are stored.
+     * @return The CCW convex hull edge out of the leftmost vertex, and the CW convex hull edge out of the rightmost.
+     */
+    QuadEdge[] triangulate(List<Vertex<TriangleFace>> vertices, int from, int to, List<QuadEdge> edges) {
+        int n = to - from;
+        if(n == 2) {
+            // Two points are simply connected by an edge.
+            QuadEdge a = QuadEdge.make(vertices.get(from), vertices.get(from + 1), edges);
+            return new QuadEdge[]{a, a.sym};
+        }
+
+        if(n == 3) {
+            // Three points form either a triangle, or two edges when the points are collinear.
+            Vertex<TriangleFace> s1 = vertices.get(from), s2 = vertices.get(from + 1), s3 = vertices.get(from + 2);
+            QuadEdge a = QuadEdge.make(s1, s2, edges);
+            QuadEdge b = QuadEdge.make(s2, s3, edges);
+            QuadEdge.splice(a.sym, b);
+
+            if(ccw(s1, s2, s3)) {
+                QuadEdge.connect(b, a, edges);
+                return new QuadEdge[]{a, b.sym};
+            } else if(ccw(s1, s3, s2)) {
+                QuadEdge c = QuadEdge.connect(b, a, edges);
+                return new QuadEdge[]{c.sym, c};
+            }
+            return new QuadEdge[]{a, b.sym};
+        }
+
+        // Triangulate both halves.
+        int middle = from + n / 2;
+        QuadEdge[] left = triangulate(vertices, from, middle, edges);
+        QuadEdge[] right = triangulate(vertices, middle, to, edges);
+        return merge(left, right, edges);
+    }
+
+    /**
+     * Merge the triangulations of two halves that are separated by a vertical line.
+     *
+     * @param left The outer hull edges of the left half.
+     * @param right The outer hull edges of the right half.
+     * @param edges The list in which all created edges are stored.
+     * @return The CCW convex hull edge out of the leftmost vertex, and the CW convex hull edge out of the rightmost.
+     */
+    QuadEdge[] merge(QuadEdge[] left, QuadEdge[] right, List<QuadEdge> edges) {
+        QuadEdge ldo = left[0], ldi = left[1], rdi = right[0], rdo = right[1];
+
+        // Find the lower common tangent of the two halves.
+        while(true) {
+            if(leftOf(rdi.origin, ldi)) {
+                ldi = ldi.lnext();
+            } else if(rightOf(ldi.origin, rdi)) {
+                rdi = rdi.rprev();
+            } else {
+                break;
+            }
+        }
+
+        // Create the first cross edge, from the right half to the left half.
+        QuadEdge base = QuadEdge.connect(rdi.sym, ldi, edges);
+        if(ldi.origin == ldo.origin) ldo = base.sym;
+        if(rdi.origin == rdo.origin) rdo = base;
+
+        // Zip the halves together from the bottom to the top.
+        while(true) {
+            // Find the left candidate, deleting the edges that fail the circle test.
+            QuadEdge lcand = base.sym.onext;
+            if(rightOf(lcand.sym.origin, base)) {
+                while(inCircle(base.sym.origin, base.origin, lcand.sym.origin, lcand.onext.sym.origin)) {
+                    QuadEdge t = lcand.onext;
+                    QuadEdge.delete(lcand);
+                    lcand = t;
+                }
+            }
+
+            // Do the same for the right candidate.
+            QuadEdge rcand = base.oprev;
+            if(rightOf(rcand.sym.origin, base)) {
+                while(inCircle(base.sym.origin, base.origin, rcand.sym.origin, rcand.oprev.sym.origin)) {
+                    QuadEdge t = rcand.oprev;
+                    QuadEdge.delete(rcand);
+                    rcand = t;
+                }
+            }
+
+            // When neither candidate is valid, we have reached the upper common tangent.
+            boolean leftValid = rightOf(lcand.sym.origin, base);
+            boolean rightValid = rightOf(rcand.sym.origin, base);
+            if(!leftValid && !rightValid) break;
+
+            // Connect to the candidate whose circle does not contain the other candidate.
+            if(!leftValid || (rightValid && inCircle(lcand.sym.origin, lcand.origin, rcand.origin, rcand.sym.origin))) {
+                base = QuadEdge.connect(rcand, base.sym, edges);
+            } else {
+                base = QuadEdge.connect(base.sym, lcand.sym, edges);
+            }
+        }
+        return new QuadEdge[]{ldo, rdo};
+    }
+
+    /**
+     * Convert the quad-edge structure to half-edges and triangle faces.
+     *
+     * @param context The context of the mesh the faces will be part of.
+     * @param edges All edges that have been created, including deleted ones.
+     * @return The triangle faces in the triangulation.
+     */
+    static List<TriangleFace> toFaces(MeshContext context, List<QuadEdge> edges) {
+        // Create a half-edge pair for every edge that has not been deleted.
+        for(QuadEdge e : edges) {
+            if(!e.deleted) {
+                e.edge = new Edge<>(e.origin, e.sym.origin);
+                e.sym.edge = e.edge.twin;
+            }
+        }
+
+        // Every CCW cycle of three edges is a face. The cycle around the convex hull is CW, and is skipped.
+        List<TriangleFace> faces = new ArrayList<>();
+        for(QuadEdge q : edges) {
+            if(q.deleted) continue;
+            for(QuadEdge e : new QuadEdge[]{q, q.sym}) {
+                QuadEdge e2 = e.lnext();
+                QuadEdge e3 = e2.lnext();
+                if(e.edge.incidentFace == null && e3.lnext() == e && ccw(e.origin, e2.origin, e3.origin)) {
+                    faces.add(new TriangleFace(context, e.edge, e2.edge, e3.edge));
+                }
+            }
+        }
+        return faces;
+    }
+
+    /**
+     * Check whether the three points make a left turn.
+     *
+     * @return True if a, b and c are in CCW order.
+     */
+    static boolean ccw(Point2d a, Point2d b, Point2d c) {
+        return Predicates.orient2d(a, b, c) > 0;
+    }
+
+    /**
+     * Check whether the point is to the right of the edge.
+     */
+    static boolean rightOf(Point2d p, QuadEdge e) {
+        return ccw(p, e.sym.origin, e.origin);
+    }
+
+    /**
+     * Check whether the point is to the left of the edge.
+     */
+    static boolean leftOf(Point2d p, QuadEdge e) {
+        return ccw(p, e.origin, e.sym.origin);
+    }
+
+    /**
+     * Check whether d is inside of the circle through a, b and c, which are given in CCW order.
+     */
+    static boolean inCircle(Point2d a, Point2d b, Point2d c, Point2d d) {
+        return Predicates.inCircle(a, b, c, d) > 0;
+    }
+
+    /**
+     * A directed edge in the primal part of a quad-edge structure. The edges around the origin form a ring.
+     */
+    static class QuadEdge {
+        // The vertex the edge originates from.
+        final Vertex<TriangleFace> origin;
+
+        // The edge in the opposite direction.
+        QuadEdge sym;
+
+        // The next and previous edges in CCW order around the origin.
+        QuadEdge onext, oprev;
+
+        // Whether the edge has been removed from the triangulation.
+        boolean deleted;
+
+        // The half-edge this edge is converted to.
+        Edge<TriangleFace> edge;
+
+        /**
+         * Create an edge that is the only edge around its origin.
+         *
+         * @param origin The vertex the edge originates from.
+         */
+        private QuadEdge(Vertex<TriangleFace> origin) {
+            this.origin = origin;
+            onext = oprev = this;
+        }
+
+        /**
+         * Create an edge pair between the two vertices.
+         */
+        static QuadEdge make(Vertex<TriangleFace> origin, Vertex<TriangleFace> target, List<QuadEdge> edges) {
+            QuadEdge e = new QuadEdge(origin);
+            e.sym = new QuadEdge(target);
+            e.sym.sym = e;
+            edges.add(e);
+            return e;
+        }
+
+        /**
+         * Exchange the rings of the two edges, which either merges two rings or splits one ring.
+         */
+        static void splice(QuadEdge a, QuadEdge b) {
+            QuadEdge ta = a.onext, tb = b.onext;
+            a.onext = tb;
+            b.onext = ta;
+            tb.oprev = a;
+            ta.oprev = b;
+        }
+
+        /**
+         * Create an edge from the destination of a to the origin of b, such that all three share a left face.
+         */
+        static QuadEdge connect(QuadEdge a, QuadEdge b, List<QuadEdge> edges) {
+            QuadEdge e = make(a.sym.origin, b.origin, edges);
+            splice(e, a.lnext());
+            splice(e.sym, b);
+            return e;
+        }
+
+        /**
+         * Remove the edge from the rings of both its end points.
+         */
+        static void delete(QuadEdge e) {
+            splice(e, e.oprev);
+            splice(e.sym, e.sym.oprev);
+            e.deleted = e.sym.deleted = true;
+        }
+
+        /**
+         * Get the next edge in CCW order around the left face.
+         */
+        QuadEdge lnext() {
+            return sym.oprev;
+        }
+
+        /**
+         * Get the previous edge in CCW order around the right face.
+         */
+        QuadEdge rprev() {
+            return sym.onext;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package geo.delaunay;
+
+import geo.store.halfedge.Edge;
+import geo.store.halfedge.Vertex;
+
+import java.util.Arrays;
+
+/**
+ * Legalizes the edges around newly inserted vertices by flipping illegal edges.
+ * Instead of recursing into the flip cascade, the edges that still have to be checked are kept on an explicit work
+ * stack. The stack is reused for all insertions, such that a batch of insertions does not allocate any work items.
+ */
+class EdgeLegalizer {
+    // The mesh in which the edges are flipped.
+    private final DelaunayMesh mesh;
+
+    // The work stack of edges that still have to be checked, together with their depth in the flip cascade.
+    private Edge<TriangleFace>[] edges;
+    private int[] depths;
+    private int size;
+
+    // The work done so far.
+    private final LegalizationStats stats = new LegalizationStats();
+
+    /**
+     * Create a legalizer for the given mesh.
+     *
+     * @param mesh The mesh in which the edges are flipped.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    EdgeLegalizer(DelaunayMesh mesh) {
+        this.mesh = mesh;
+        edges = new Edge[16];
+        depths = new int[16];
+    }
+
+    /**
+     * Legalize the edges opposite of the given vertex, and the edges that become illegal by flipping them.
+     *
+     * @param v The vertex that has just been inserted.
+     */
+    void legalizeAround(Vertex<TriangleFace> v) {
+        int flips = 0, maxDepth = 0, checks = 0, wasted = 0;
+
+        for(Edge<TriangleFace> spoke : v) {
+            // Start with the edge e.next, which is the edge opposing v.
+            push(spoke.next(), 1);
+
+            while(size > 0) {
+                size--;
+                Edge<TriangleFace> e = edges[size];
+                int depth = depths[size];
+                edges[size] = null;
+
+                /* The situation is as follows
+
+                                v1
+                              /    \
+                             /      \
+                           tl        tr
+                          /            \
+                         v -- e ------- w
+                         v -- e.twin -- w
+                          \            /
+                           bl        br
+                             \      /
+                              \    /
+                                v2
+                 */
+
+                // If the edge is illegal, swap it.
+                checks++;
+                if(e.incidentFace.isIllegal(e)) {
+                    mesh.swapEdge(e);
+                    flips++;
+                    maxDepth = Math.max(maxDepth, depth);
+
+                    // Now, we want to legalize edges bl and br, in that order.
+                    push(e.twin.previous(), depth + 1);
+                    push(e.twin.next(), depth + 1);
+                } else {
+                    wasted++;
+                }
+            }
+        }
+
+        stats.record(flips, maxDepth, checks, wasted);
+    }
+
+    /**
+     * Add an edge to the work stack.
+     *
+     * @param e The edge that should be checked.
+     * @param depth The depth of the edge in the flip cascade.
+     */
+    private void push(Edge<TriangleFace> e, int depth) {
+        if(size == edges.length) {
+            edges = Arrays.copyOf(edges, 2 * size);
+            depths = Arrays.copyOf(depths, 2 * size);
+        }
+        edges[size] = e;
+        depths[size] = depth;
+        size++;
+    }
+
+    /**
+     * Get the statistics on the work done so far.
+     *
+     * @return The statistics, which are updated after every insertion.
+     */
+    LegalizationStats getStats() {
+        return stats;
+    }
+}
@@ -2,24 +2,57 @@ package geo.delaunay;
 
 import geo.store.graph.DAG;
 import geo.store.graph.Node;
+import geo.store.halfedge.Edge;
 import geo.store.math.Point2d;
-import geo.store.math.Triangle2d;
 
 import java.util.*;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * A engine for point to face searches in the triangulation structure.
  * We extend the DAG data structure, as we need access to its data.
+ *
+ * The history in the DAG grows with every split and flip. Once the amount of nodes exceeds the given ratio of the
+ * amount of faces in the triangulation, the DAG is rebuilt with only the current faces as roots. We remember how the
+ * roots are connected, such that we can walk over the roots to find the one to continue the search from.
  */
-public class FaceSearcher extends DAG<TriangleFace> {
-    // We keep a mapping of all faces from ids to instances... for easy replacements.
+public class FaceSearcher extends DAG<TriangleFace> implements PointLocator {
+    // We keep a mapping of the faces currently in the triangulation from ids to instances... for easy replacements.
     private final HashMap<Integer, Node<TriangleFace>> idToFaceNode = new HashMap<>();
 
+    // The amount of nodes in the DAG, which includes the faces that are no longer part of the triangulation.
+    private int historySize = 0;
+
+    // The maximum ratio between the amount of nodes in the DAG and the amount of faces in the triangulation.
+    private final double maxHistoryRatio;
+
+    // The root in which the previous walk over the roots ended, null if the roots have not been rebuilt yet.
+    private Root lastRoot;
+
+    // The default maximum ratio between the history size and the amount of faces in the triangulation.
+    public static final double DEFAULT_MAX_HISTORY_RATIO = 4;
+
+    /**
+     * Create a face searcher that rebuilds its history at the default ratio.
+     */
+    public FaceSearcher() {
+        this(DEFAULT_MAX_HISTORY_RATIO);
+    }
+
+    /**
+     * Create a face searcher that rebuilds its history at the given ratio.
+     *
+     * @param maxHistoryRatio The maximum ratio between the amount of nodes in the DAG and the amount of faces in the
+     *                        triangulation. When exceeded, the DAG is rebuilt over the current faces only.
+     */
+    public FaceSearcher(double maxHistoryRatio) {
+        this.maxHistoryRatio = maxHistoryRatio;
+    }
+
     /**
      * Insert a new node at the root level.
      */
+    @Override
     public void insertRootFace(TriangleFace face) {
         // Simply add the face to the root.
         Node<TriangleFace> node = new Node<>(face);
@@ -27,6 +60,7 @@ public class FaceSearcher extends DAG<TriangleFace> {
         // Add the face to the id map.
         idToFaceNode.put(face.id, node);
         roots.add(node);
+        historySize++;
     }
 
     /**
@@ -35,60 +69,145 @@ public class FaceSearcher extends DAG<TriangleFace> {
      * @param original The faces that are currently in the DAG.
      * @param replacement The faces we want to replace the original faces with by making them children of the originals.
      */
+    @Override
     public void replaceFaces(List<TriangleFace> original, List<TriangleFace> replacement) {
         // Lets first convert the replacements to nodes, and add them to the mapping.
         List<Node<TriangleFace>> replacementNodes = replacement.stream().map(Node::new).collect(Collectors.toList());
-        replacementNodes.forEach(n -> idToFaceNode.put(n.value.id, n));
+        historySize += replacementNodes.size();
 
-        // Now look up the corresponding node references in the mapping.
+        // Now look up the corresponding node references in the mapping. The originals are no longer replaceable.
         for(TriangleFace f : original) {
             // Add the children.
-            Node<TriangleFace> node = idToFaceNode.get(f.id);
+            Node<TriangleFace> node = idToFaceNode.remove(f.id);
             if(node != null) node.children.addAll(replacementNodes);
         }
+        replacementNodes.forEach(n -> idToFaceNode.put(n.value.id, n));
+    }
+
+    /**
+     * Forget the history, and start over with the given faces as roots.
+     *
+     * @param faces The faces that are part of the triangulation.
+     */
+    @Override
+    public void reset(Collection<TriangleFace> faces) {
+        idToFaceNode.clear();
+        faces.forEach(f -> idToFaceNode.put(f.id, new Node<>(f)));
+        rebuild();
+    }
+
+    /**
+     * Replace the DAG by a DAG that only contains the faces that are currently part of the triangulation as roots.
+     */
+    private void rebuild() {
+        // Create a root for every face that is currently part of the triangulation.
+        HashMap<Integer, Root> idToRoot = new HashMap<>();
+        for(Node<TriangleFace> node : idToFaceNode.values()) {
+            idToRoot.put(node.value.id, new Root(node.value));
+        }
+
+        // Connect the roots to the roots on the other side of their edges.
+        for(Root root : idToRoot.values()) {
+            for(int i = 0; i < 3; i++) {
+                root.neighbours[i] = idToRoot.get(root.edges.get(i).twin.incidentFace.id);
+            }
+        }
+
+        // Replace the old history, which can now be garbage collected.
+        roots.clear();
+        roots.addAll(idToRoot.values());
+        idToFaceNode.clear();
+        idToFaceNode.putAll(idToRoot);
+        historySize = roots.size();
+        lastRoot = idToRoot.values().iterator().next();
     }
 
     /**
      * Find the face that contains the given point.
      *
-     * @return The corresponding face if it exists, the outer face otherwise.
+     * @param p The point we want to locate.
+     * @param result The holder in which the containment result of the face that contains the point is written.
+     * @return True if the point has been found, false if the point is in the outer face.
      */
-    public TriangleFace.ContainsResult findFace(Point2d p) {
+    @Override
+    public boolean findFace(Point2d p, TriangleFace.ContainsResult result) {
+        // Start over with the current faces when the history has become too large. We only do this in between
+        // modifications of the mesh, as the mesh might be inconsistent while faces are being replaced.
+        if(historySize > maxHistoryRatio * idToFaceNode.size()) {
+            rebuild();
+        }
+
+        // If the roots have been rebuilt, we walk to the root that contains the point instead of checking all roots.
+        if(lastRoot != null) {
+            Root root = findRoot(p);
+            if(root == null) return false;
+            if(findFace(root, p, result)) return true;
+        }
+
         // Recursively search through the nodes.
-        for(Node<TriangleFace> node : roots) {
-            TriangleFace.ContainsResult hit = findFace(node, p);
-            if(hit != null) return hit;
+        for(int i = 0; i < roots.size(); i++) {
+            if(findFace(roots.get(i), p, result)) return true;
         }
 
-        // If not found, return null.
-        return null;
+        // If not found, report that the point is in the outer face.
+        return false;
+    }
+
+    /**
+     * Walk over the roots, starting at the root the previous walk ended in, to find the root containing the point.
+     *
+     * @param p The point we want to locate.
+     * @return The root that contains the point, or null if the point is outside of all roots.
+     */
+    private Root findRoot(Point2d p) {
+        // The root we are currently in, and the root we came from.
+        Root root = lastRoot;
+        Root previous = null;
+
+        for(int steps = 0; steps <= roots.size(); steps++) {
+            // Find an edge, other than the one we came through, that has the point on the outer side.
+            Root next = null;
+            for(int i = 0; i < 3 && next == null; i++) {
+                if((previous == null || root.neighbours[i] != previous) && root.edges.get(i).isPointRightOfEdge(p)) {
+                    // Walking over an edge without neighbour means that we leave the triangulation.
+                    if(root.neighbours[i] == null) return null;
+                    next = root.neighbours[i];
+                }
+            }
+
+            // If there is no such edge, the point is inside of the root.
+            if(next == null) break;
+            previous = root;
+            root = next;
+        }
+
+        lastRoot = root;
+        return root;
     }
 
     /**
      * Find a face that contains the given point starting from the given node.
      *
      * @param node The node we want to start the search at.
-     * @return The corresponding face if it exists, null otherwise.
+     * @param result The holder in which the containment result of the face that contains the point is written.
+     * @return True if the corresponding face exists, false otherwise.
      */
-    private TriangleFace.ContainsResult findFace(Node<TriangleFace> node, Point2d p) {
+    private boolean findFace(Node<TriangleFace> node, Point2d p, TriangleFace.ContainsResult result) {
         // First, check if the point can be in this node, before proceeding checking the children.
-        TriangleFace.ContainsResult result = node.value.contains(p);
-
-        if(result.location != TriangleFace.Location.OUTSIDE) {
-            // Check if we have children, if not, this is a leaf node and we return it as a result.
+        if(node.value.contains(p, result) != TriangleFace.Location.OUTSIDE) {
+            // Check if we have children, if not, this is a leaf node and the result is complete.
             if(node.children.isEmpty()) {
-                return result;
+                return true;
             }
 
             // Otherwise, iterate over all children and do the same check.
-            for(Node<TriangleFace> child : node.children) {
-                TriangleFace.ContainsResult hit = findFace(child, p);
-                if(hit != null) return hit;
+            for(int i = 0; i < node.children.size(); i++) {
+                if(findFace(node.children.get(i), p, result)) return true;
             }
         }
 
-        // If no hits, return null.
-        return null;
+        // If no hits, return false.
+        return false;
     }
 
     /**
@@ -96,11 +215,30 @@ public class FaceSearcher extends DAG<TriangleFace> {
      *
      * @return The faces that are leaves of the DAG and the outer face.
      */
+    @Override
     public Set<TriangleFace> getTriangulatedFaces() {
         // The currently active faces are all the leaves of the DAG.
-        Set<TriangleFace> faces = getLeaves();
-        faces.add(TriangleFace.outerFace);
+        return getLeaves();
+    }
+
+    /**
+     * A root node that remembers its neighbouring roots, such that we can walk over the roots.
+     */
+    private static class Root extends Node<TriangleFace> {
+        // The edges of the face at the time the root was created. The end points of edges never change.
+        private final List<Edge<TriangleFace>> edges;
+
+        // The roots on the other side of the edges, null if the other side is the outer face.
+        private final Root[] neighbours = new Root[3];
 
-        return faces;
+        /**
+         * Create a root node for the given face.
+         *
+         * @param face The face that is currently part of the triangulation.
+         */
+        private Root(TriangleFace face) {
+            super(face);
+            edges = face.edges();
+        }
     }
 }
@@ -0,0 +1,164 @@
+package geo.delaunay;
+
+import geo.store.halfedge.Edge;
+import geo.store.math.Point2d;
+
+import java.util.*;
+
+/**
+ * A point locator that walks over the faces of the triangulation, instead of keeping a history of all faces.
+ * We use a remembering stochastic walk, which starts at the last visited face or at the closest of a few random faces.
+ */
+public class FaceWalker implements PointLocator {
+    // The faces that are currently part of the triangulation, with a mapping to their position in the list.
+    private final List<TriangleFace> faces = new ArrayList<>();
+    private final HashMap<TriangleFace, Integer> faceToIndex = new HashMap<>();
+
+    // The face in which the previous walk ended, or the last face that has been added.
+    private TriangleFace last;
+
+    // The random instance used for sampling starting points and choosing the order in which edges are visited.
+    private final Random random = new Random(2938471263L);
+
+    /**
+     * Insert a new face into the triangulation.
+     *
+     * @param face The face that should be registered.
+     */
+    @Override
+    public void insertRootFace(TriangleFace face) {
+        addFace(face);
+    }
+
+    /**
+     * Replace the original faces by the replacement faces.
+     *
+     * @param original The faces that are currently part of the triangulation.
+     * @param replacement The faces we want to replace the original faces with.
+     */
+    @Override
+    public void replaceFaces(List<TriangleFace> original, List<TriangleFace> replacement) {
+        original.forEach(this::removeFace);
+        replacement.forEach(this::addFace);
+    }
+
+    /**
+     * Forget all faces, and start over with the given faces.
+     *
+     * @param faces The faces that are part of the triangulation.
+     */
+    @Override
+    public void reset(Collection<TriangleFace> faces) {
+        this.faces.clear();
+        faceToIndex.clear();
+        faces.forEach(this::addFace);
+    }
+
+    /**
+     * Add a face to the list of faces.
+     *
+     * @param face The face to add.
+     */
+    private void addFace(TriangleFace face) {
+        faceToIndex.put(face, faces.size());
+        faces.add(face);
+        last = face;
+    }
+
+    /**
+     * Remove the face from the list of faces, by moving the last face in the list to its position.
+     *
+     * @param face The face to remove.
+     */
+    private void removeFace(TriangleFace face) {
+        Integer index = faceToIndex.remove(face);
+        if(index == null) return;
+
+        TriangleFace moved = faces.remove(faces.size() - 1);
+        if(moved != face) {
+            faces.set(index, moved);
+            faceToIndex.put(moved, index);
+        }
+        if(last == face) last = moved;
+    }
+
+    /**
+     * Find the face that contains the given point, by walking towards it over the mesh.
+     *
+     * @param p The point we want to locate.
+     * @param result The holder in which the containment result of the face that contains the point is written.
+     * @return True if the point has been found, false if the point is in the outer face.
+     */
+    @Override
+    public boolean findFace(Point2d p, TriangleFace.ContainsResult result) {
+        // The face we walk from, and the edge through which we entered it.
+        TriangleFace face = findStartFace(p);
+        Edge<TriangleFace> entry = null;
+
+        // In a Delaunay triangulation the walk terminates, but we limit the amount of steps in case of rounding errors.
+        for(int steps = 0; steps <= faces.size(); steps++) {
+            // Start the edge checks at a random edge, to avoid cycles in degenerate cases.
+            Edge<TriangleFace> e = face.outerComponent;
+            for(int i = random.nextInt(3); i > 0; i--) e = e.next();
+
+            // Find an edge, other than the one we came through, that has the point on the outer side.
+            Edge<TriangleFace> exit = null;
+            for(int i = 0; i < 3 && exit == null; i++, e = e.next()) {
+                if(e != entry && e.isPointRightOfEdge(p)) exit = e;
+            }
+
+            if(exit == null) {
+                // The point is inside of the face or on its border.
+                if(face.contains(p, result) == TriangleFace.Location.OUTSIDE) break;
+                last = face;
+                return true;
+            }
+
+            // If we walk out of the triangulation, the point is in the outer face.
+            if(exit.twin.incidentFace instanceof TriangleFace.OuterTriangleFace) return false;
+
+            // Continue with the face on the other side of the edge.
+            entry = exit.twin;
+            face = exit.twin.incidentFace;
+        }
+
+        // The walk did not succeed, so fall back to checking all faces.
+        for(int i = 0; i < faces.size(); i++) {
+            if(faces.get(i).contains(p, result) != TriangleFace.Location.OUTSIDE) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Choose the face to start the walk from, which is the closest face out of the last face and a sample of faces.
+     *
+     * @param p The point we want to locate.
+     * @return The face that is closest to the point.
+     */
+    private TriangleFace findStartFace(Point2d p) {
+        TriangleFace best = last;
+        double bestDistance = best.c.distance(p);
+
+        // Jump to the closest face out of a sample of size n^(1/3), which gives an expected walk of length n^(1/3).
+        int samples = (int) Math.cbrt(faces.size());
+        for(int i = 0; i < samples; i++) {
+            TriangleFace face = faces.get(random.nextInt(faces.size()));
+            double distance = face.c.distance(p);
+            if(distance < bestDistance) {
+                best = face;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Get all the visible faces.
+     *
+     * @return The faces that are currently part of the triangulation, and the outer face.
+     */
+    @Override
+    public Set<TriangleFace> getTriangulatedFaces() {
+        return new HashSet<>(faces);
+    }
+}
@@ -0,0 +1,125 @@
+package geo.delaunay;
+
+import java.util.Locale;
+
+/**
+ * Statistics on the edge flips done while legalizing the triangulation after insertions.
+ * A large amount of flips or a deep flip cascade per insertion points at a degenerate workload, like points on a grid.
+ */
+public class LegalizationStats {
+    // The amount of insertions that have been legalized.
+    private long insertions;
+
+    // The total amount of flips, legality checks, and checks that found the edge to be legal already.
+    private long flips, checks, wastedChecks;
+
+    // The largest amount of flips and the deepest flip cascade caused by a single insertion.
+    private int maxFlips, maxDepth;
+
+    // The amount of flips and the depth of the flip cascade of the last insertion.
+    private int lastFlips, lastDepth;
+
+    /**
+     * Record the work done to legalize the edges around a newly inserted vertex.
+     *
+     * @param flips The amount of edges that have been flipped.
+     * @param depth The depth of the flip cascade, where the edges opposite of the vertex have depth 1.
+     * @param checks The amount of legality checks.
+     * @param wastedChecks The amount of legality checks that did not lead to a flip.
+     */
+    void record(int flips, int depth, int checks, int wastedChecks) {
+        insertions++;
+        this.flips += flips;
+        this.checks += checks;
+        this.wastedChecks += wastedChecks;
+        maxFlips = Math.max(maxFlips, flips);
+        maxDepth = Math.max(maxDepth, depth);
+        lastFlips = flips;
+        lastDepth = depth;
+    }
+
+    /**
+     * Forget all recorded work.
+     */
+    public void reset() {
+        insertions = flips = checks = wastedChecks = 0;
+        maxFlips = maxDepth = lastFlips = lastDepth = 0;
+    }
+
+    /**
+     * Get the amount of insertions that have been legalized.
+     */
+    public long getInsertions() {
+        return insertions;
+    }
+
+    /**
+     * Get the total amount of flips.
+     */
+    public long getFlips() {
+        return flips;
+    }
+
+    /**
+     * Get the total amount of legality checks.
+     */
+    public long getChecks() {
+        return checks;
+    }
+
+    /**
+     * Get the amount of legality checks that found the edge to be legal, and thus did not lead to a flip.
+     */
+    public long getWastedChecks() {
+        return wastedChecks;
+    }
+
+    /**
+     * Get the largest amount of flips caused by a single insertion.
+     */
+    public int getMaxFlips() {
+        return maxFlips;
+    }
+
+    /**
+     * Get the depth of the deepest flip cascade caused by a single insertion.
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Get the amount of flips caused by the last insertion.
+     */
+    public int getLastFlips() {
+        return lastFlips;
+    }
+
+    /**
+     * Get the depth of the flip cascade caused by the last insertion.
+     */
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    /**
+     * Get the average amount of flips per insertion.
+     *
+     * @return The amount of flips divided by the amount of insertions, or 0 if nothing has been inserted.
+     */
+    public double getAverageFlips() {
+        return insertions == 0 ? 0 : (double) flips / insertions;
+    }
+
+    /**
+     * Get the string representation of the statistics.
+     *
+     * @return A summary of the recorded work.
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "%d insertions, %d flips (%.2f per insertion, max %d), max depth %d, %d checks of which %d wasted",
+                insertions, flips, getAverageFlips(), maxFlips, maxDepth, checks, wastedChecks);
+    }
+}
@@ -0,0 +1,55 @@
+package geo.delaunay;
+
+import geo.store.halfedge.Vertex;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The state that is shared by all elements of a single triangulation: the ids of the faces, the outer face and the
+ * symbolic corners of the bounding triangle. Every mesh has its own context, such that multiple triangulations can be
+ * built and changed at the same time, each on its own thread.
+ */
+public class MeshContext {
+    // The id that will be given to the next face of the mesh.
+    private final AtomicInteger faceCounter = new AtomicInteger();
+
+    // The face on the outside of the triangulation.
+    public final TriangleFace outerFace;
+
+    // The symbolic corners of the bounding triangle, in CCW order.
+    public final List<Vertex<TriangleFace>> corners;
+
+    /**
+     * Create a context with a new outer face, and a bounding triangle that is large enough to contain the board.
+     */
+    public MeshContext() {
+        outerFace = new TriangleFace.OuterTriangleFace(this);
+        corners = createCorners();
+    }
+
+    /**
+     * Create the symbolic corners of a bounding triangle that is large enough to contain the board, without the rest
+     * of a context. Used by structures that need the same corners as the triangulation, but no mesh.
+     *
+     * @return New symbolic vertices at the corners of the bounding triangle, in CCW order.
+     */
+    public static List<Vertex<TriangleFace>> createCorners() {
+        return Collections.unmodifiableList(Arrays.asList(
+                new Vertex.SymbolicVertex<>(-10e6, -10e6),
+                new Vertex.SymbolicVertex<>(10e6, -10e6),
+                new Vertex.SymbolicVertex<>(0, 10e6)
+        ));
+    }
+
+    /**
+     * Get a new id for a face in the mesh. The ids are unique within the context.
+     *
+     * @return The next face id.
+     */
+    int nextFaceId() {
+        return faceCounter.getAndIncrement();
+    }
+}
@@ -0,0 +1,26 @@
+package geo.delaunay;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A listener that is notified of every change to the faces of a mesh, such that structures derived from the
+ * triangulation can be updated locally instead of being rebuilt.
+ */
+public interface MeshListener {
+    /**
+     * Called after the given faces have been replaced, e.g. when a vertex is inserted, an edge is flipped or a vertex
+     * is removed. The original faces are no longer part of the triangulation, but their corner points can still be read.
+     *
+     * @param original The faces that have been removed from the triangulation.
+     * @param replacement The faces that have taken their place, which together cover the same area.
+     */
+    void facesReplaced(List<TriangleFace> original, List<TriangleFace> replacement);
+
+    /**
+     * Called after the triangulation has been replaced as a whole by a batch triangulation.
+     *
+     * @param faces The faces of the new triangulation, excluding the outer face.
+     */
+    void meshRebuilt(Collection<TriangleFace> faces);
+}
@@ -0,0 +1,127 @@
+package geo.delaunay;
+
+import geo.store.halfedge.Vertex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Construct the Delaunay triangulation with the divide and conquer algorithm, using multiple cores.
+ * The points are sorted by x-coordinate, and divided into vertical strips that are triangulated in parallel on a
+ * fork-join pool. Neighbouring strips are stitched together with the usual merge step as soon as both are done.
+ */
+public class ParallelDivideAndConquerTriangulator extends DivideAndConquerTriangulator {
+    // Strips with at most this many points are triangulated sequentially.
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+
+    // The pool on which the strips are triangulated.
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a triangulator that uses the common fork-join pool.
+     */
+    public ParallelDivideAndConquerTriangulator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a triangulator that uses the given pool.
+     *
+     * @param pool The pool on which the strips are triangulated.
+     */
+    public ParallelDivideAndConquerTriangulator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Construct the Delaunay triangulation of the given vertices.
+     *
+     * @param context The context of the mesh the faces will be part of.
+     * @param vertices The vertices to triangulate, which are all at different positions.
+     * @return The faces of the triangulation.
+     */
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<TriangleFace> triangulate(MeshContext context, List<Vertex<TriangleFace>> vertices) {
+        // Sort the vertices by x-coordinate, and by y-coordinate in case of ties. The sort is started from within
+        // the pool, such that its subtasks run on our workers instead of the common pool.
+        Vertex<TriangleFace>[] sorted = vertices.toArray(new Vertex[0]);
+        pool.submit(() -> Arrays.parallelSort(sorted, Comparator.<Vertex<TriangleFace>>comparingDouble(v -> v.x)
+                .thenComparingDouble(v -> v.y))).join();
+
+        // Triangulate the strips in parallel.
+        Strip strip = pool.invoke(new StripTask(Arrays.asList(sorted), 0, sorted.length));
+
+        // Gather the edges of all the strips, and convert the result to the half-edge structure.
+        List<QuadEdge> edges = new ArrayList<>();
+        strip.edges.forEach(edges::addAll);
+        return toFaces(context, edges);
+    }
+
+    /**
+     * The triangulation of a strip of points.
+     */
+    private static class Strip {
+        // The CCW convex hull edge out of the leftmost vertex, and the CW convex hull edge out of the rightmost.
+        private final QuadEdge[] hull;
+
+        // The edges created while triangulating the strip, in one list per task.
+        private final List<List<QuadEdge>> edges;
+
+        private Strip(QuadEdge[] hull, List<List<QuadEdge>> edges) {
+            this.hull = hull;
+            this.edges = edges;
+        }
+    }
+
+    /**
+     * A task that triangulates the points in a range of the sorted list.
+     */
+    @SuppressWarnings("serial")
+    private class StripTask extends RecursiveTask<Strip> {
+        // The points sorted by x-coordinate, and the range we should triangulate.
+        private final List<Vertex<TriangleFace>> vertices;
+        private final int from, to;
+
+        private StripTask(List<Vertex<TriangleFace>> vertices, int from, int to) {
+            this.vertices = vertices;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Triangulate the range, splitting it into two tasks if it is large.
+         *
+         * @return The triangulation of the strip.
+         */
+        @Override
+        protected Strip compute() {
+            List<QuadEdge> edges = new ArrayList<>();
+
+            // Small strips are done sequentially.
+            if(to - from <= SEQUENTIAL_THRESHOLD) {
+                QuadEdge[] hull = triangulate(vertices, from, to, edges);
+                List<List<QuadEdge>> result = new ArrayList<>();
+                result.add(edges);
+                return new Strip(hull, result);
+            }
+
+            // Triangulate the left half on another thread, while we triangulate the right half.
+            int middle = from + (to - from) / 2;
+            StripTask leftTask = new StripTask(vertices, from, middle);
+            leftTask.fork();
+            Strip right = new StripTask(vertices, middle, to).compute();
+            Strip left = leftTask.join();
+
+            // Stitch the two halves together.
+            QuadEdge[] hull = merge(left.hull, right.hull, edges);
+            left.edges.addAll(right.edges);
+            left.edges.add(edges);
+            return new Strip(hull, left.edges);
+        }
+    }
+}
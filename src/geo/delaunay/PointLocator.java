@@ -0,0 +1,61 @@
+package geo.delaunay;
+
+import geo.store.math.Point2d;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A structure that keeps track of the faces in the triangulation, such that we can find the face containing a point.
+ */
+public interface PointLocator {
+    /**
+     * Register a face that is part of the initial triangulation.
+     *
+     * @param face The face that should be registered.
+     */
+    void insertRootFace(TriangleFace face);
+
+    /**
+     * Replace the given faces in the triangulation by the replacement faces, which together cover the same area.
+     *
+     * @param original The faces that are currently part of the triangulation.
+     * @param replacement The faces we want to replace the original faces with.
+     */
+    void replaceFaces(List<TriangleFace> original, List<TriangleFace> replacement);
+
+    /**
+     * Forget all faces, and start over with the given faces, which together form a complete triangulation.
+     *
+     * @param faces The faces that are part of the triangulation.
+     */
+    void reset(Collection<TriangleFace> faces);
+
+    /**
+     * Find the face that contains the given point.
+     *
+     * @param p The point we want to locate.
+     * @return The containment result of the face that contains the point, null if the point is in the outer face.
+     */
+    default TriangleFace.ContainsResult findFace(Point2d p) {
+        TriangleFace.ContainsResult result = new TriangleFace.ContainsResult();
+        return findFace(p, result) ? result : null;
+    }
+
+    /**
+     * Find the face that contains the given point, without allocating any objects.
+     *
+     * @param p The point we want to locate.
+     * @param result The holder in which the containment result of the face that contains the point is written.
+     * @return True if the point has been found, false if the point is in the outer face.
+     */
+    boolean findFace(Point2d p, TriangleFace.ContainsResult result);
+
+    /**
+     * Get all the visible faces.
+     *
+     * @return A new set with the faces that are currently part of the triangulation, excluding the outer face.
+     */
+    Set<TriangleFace> getTriangulatedFaces();
+}
@@ -0,0 +1,169 @@
+package geo.delaunay;
+
+import geo.store.halfedge.Edge;
+import geo.store.halfedge.Vertex;
+import geo.store.math.Point2d;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Finds the points of a triangulation that are close to a query point, using the triangulation itself as the index.
+ *
+ * The face containing the query point is located first, after which we walk from its corners to ever closer Delaunay
+ * neighbours. A point that is not the nearest point always has a Delaunay neighbour that is closer to the query point,
+ * since its Voronoi cell is bounded by the bisectors with its neighbours. The walk thus ends at the nearest point, and
+ * the k nearest points can be found by expanding over the neighbours in order of distance from there on.
+ *
+ * The symbolic corners of the mesh are never reported. The search reads the current mesh, so it should only be used
+ * by the thread that changes the triangulation.
+ */
+public class ProximitySearch {
+    // The mesh that is searched.
+    private final DelaunayMesh mesh;
+
+    // The holder in which the point locator writes the face that contains the query point.
+    private final TriangleFace.ContainsResult location = new TriangleFace.ContainsResult();
+
+    /**
+     * Create a search over the given mesh, which follows the changes made to the mesh afterwards.
+     *
+     * @param mesh The mesh of which the vertices should be searched.
+     */
+    public ProximitySearch(DelaunayMesh mesh) {
+        this.mesh = mesh;
+    }
+
+    /**
+     * Find the point that is nearest to the given point.
+     *
+     * @param p The query point.
+     * @return The vertex in the triangulation closest to p, or null if the triangulation has no vertices.
+     */
+    public Vertex<TriangleFace> findNearest(Point2d p) {
+        Vertex<TriangleFace> current = findStart(p);
+        if(current == null) return null;
+
+        // Move to the closest neighbour that is closer than the current vertex, until there is no such neighbour.
+        double best = distanceSquared(current, p);
+        Vertex<TriangleFace> next = current;
+        do {
+            current = next;
+            Edge<TriangleFace> edge = current.incidentEdge;
+            do {
+                Vertex<TriangleFace> neighbour = edge.twin.origin;
+                if(!(neighbour instanceof Vertex.SymbolicVertex)) {
+                    double distance = distanceSquared(neighbour, p);
+                    if(distance < best) {
+                        best = distance;
+                        next = neighbour;
+                    }
+                }
+                edge = edge.twin.next();
+            } while(edge != current.incidentEdge);
+        } while(next != current);
+        return current;
+    }
+
+    /**
+     * Find the k points that are nearest to the given point.
+     *
+     * @param p The query point.
+     * @param k The amount of points to find.
+     * @return The k vertices closest to p in order of distance, or all vertices when there are fewer than k.
+     */
+    public List<Vertex<TriangleFace>> findNearest(Point2d p, int k) {
+        return expand(p, k, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Find all points that are within the given distance of the given point.
+     *
+     * @param p The query point.
+     * @param radius The maximum distance to the query point, inclusive.
+     * @return The vertices at a distance of at most the radius from p, in order of distance.
+     */
+    public List<Vertex<TriangleFace>> findWithin(Point2d p, double radius) {
+        return expand(p, Integer.MAX_VALUE, radius * radius);
+    }
+
+    /**
+     * Visit the vertices in order of distance to the given point, starting at the nearest point. Every vertex that is
+     * not the nearest one has a neighbour that is closer, so the next vertex in order is always a neighbour of one of
+     * the vertices visited before it.
+     *
+     * @param p The query point.
+     * @param limit The maximum amount of vertices to report.
+     * @param maxDistance The maximum squared distance of the vertices to report.
+     * @return The reported vertices, in order of distance.
+     */
+    private List<Vertex<TriangleFace>> expand(Point2d p, int limit, double maxDistance) {
+        List<Vertex<TriangleFace>> result = new ArrayList<>();
+        Vertex<TriangleFace> nearest = findNearest(p);
+        if(nearest == null || limit <= 0) return result;
+
+        // The vertices that have been queued at some point, which are never queued again.
+        Set<Vertex<TriangleFace>> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        PriorityQueue<Vertex<TriangleFace>> queue = new PriorityQueue<>(
+                Comparator.comparingDouble(v -> distanceSquared(v, p)));
+        queue.add(nearest);
+        seen.add(nearest);
+
+        while(!queue.isEmpty() && result.size() < limit) {
+            // All vertices that are still to come are at least as far away as the closest one in the queue.
+            Vertex<TriangleFace> vertex = queue.poll();
+            if(distanceSquared(vertex, p) > maxDistance) break;
+            result.add(vertex);
+
+            // Queue the neighbours of the vertex that have not been seen yet.
+            Edge<TriangleFace> edge = vertex.incidentEdge;
+            do {
+                Vertex<TriangleFace> neighbour = edge.twin.origin;
+                if(!(neighbour instanceof Vertex.SymbolicVertex) && seen.add(neighbour)) queue.add(neighbour);
+                edge = edge.twin.next();
+            } while(edge != vertex.incidentEdge);
+        }
+        return result;
+    }
+
+    /**
+     * Find the corner of the face containing the given point that is closest to the point, to start walking from.
+     *
+     * @param p The query point.
+     * @return A vertex of the triangulation close to p, or null if there is none to start from.
+     */
+    private Vertex<TriangleFace> findStart(Point2d p) {
+        // Without any vertices, there is nothing to find. Points outside of the symbolic triangle cannot be located.
+        if(mesh.size() == 0 || !mesh.locate(p, location)) return null;
+
+        // The face only has symbolic corners when the mesh is empty, so at least one of the corners is a vertex.
+        Vertex<TriangleFace> start = null;
+        double best = Double.POSITIVE_INFINITY;
+        for(Edge<TriangleFace> edge : location.face.getOriginalEdges()) {
+            if(edge.origin instanceof Vertex.SymbolicVertex) continue;
+            double distance = distanceSquared(edge.origin, p);
+            if(distance < best) {
+                best = distance;
+                start = edge.origin;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Calculate the squared euclidean distance between two points.
+     *
+     * @param a The first point.
+     * @param b The second point.
+     * @return The squared distance between a and b.
+     */
+    private static double distanceSquared(Point2d a, Point2d b) {
+        double dx = a.x - b.x, dy = a.y - b.y;
+        return dx * dx + dy * dy;
+    }
+}
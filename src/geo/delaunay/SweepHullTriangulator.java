@@ -0,0 +1,523 @@
+package geo.delaunay;
+
+import geo.store.halfedge.Edge;
+import geo.store.halfedge.IndexedMesh;
+import geo.store.halfedge.Vertex;
+import geo.util.Predicates;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Construct the Delaunay triangulation with the radial sweep-hull algorithm (S-hull).
+ * The points are sorted by their distance to the circumcenter of a seed triangle, after which the convex hull is grown
+ * one point at a time by adding a fan of triangles to the hull edges that the point can see. The resulting
+ * triangulation is made Delaunay with a single pass of edge flips. No bounding triangle and no point location
+ * structure is needed.
+ *
+ * The sweep works on plain index arrays. The half-edge structure is only created once the fan is complete, either as
+ * objects, or as an {@link IndexedMesh} that is flipped to Delaunay on the arrays themselves.
+ */
+public class SweepHullTriangulator implements BatchTriangulator {
+    // The coordinates of the vertices.
+    private double[] xs, ys;
+
+    // The corner vertices of the triangles, three per triangle, in CCW order.
+    private int[] triangles;
+
+    // For every half-edge in the triangles, the index of its twin, or -1 if it is on the convex hull.
+    private int[] halfedges;
+
+    // The amount of half-edges that have been used in the arrays above.
+    private int triangleSize;
+
+    // The convex hull as a doubly linked list of vertex indices in CCW order.
+    private int[] hullNext, hullPrev;
+
+    // For every vertex on the hull, the half-edge that goes from it to the next vertex on the hull.
+    private int[] hullTri;
+
+    // A hash on the angle around the seed circumcenter, used to find a hull vertex close to a new point.
+    private int[] hullHash;
+
+    // The circumcenter of the seed triangle.
+    private double cx, cy;
+
+    /**
+     * Construct the Delaunay triangulation of the given vertices.
+     *
+     * @param context The context of the mesh the faces will be part of.
+     * @param vertices The vertices to triangulate, which are all at different positions.
+     * @return The faces of the triangulation, or an empty list if all vertices are collinear.
+     */
+    @Override
+    public List<TriangleFace> triangulate(MeshContext context, List<Vertex<TriangleFace>> vertices) {
+        int n = vertices.size();
+        if(n < 3) return new ArrayList<>();
+
+        // Copy the coordinates, and sweep over the points to find a triangulation of the convex hull.
+        xs = new double[n];
+        ys = new double[n];
+        for(int i = 0; i < n; i++) {
+            xs[i] = vertices.get(i).x;
+            ys[i] = vertices.get(i).y;
+        }
+        if(!sweep()) return new ArrayList<>();
+
+        // Convert the triangulation to the half-edge structure, and flip edges until it is Delaunay.
+        List<TriangleFace> faces = toFaces(context, vertices);
+        return flip(context, faces);
+    }
+
+    /**
+     * Construct the Delaunay triangulation of the given points as an indexed mesh, without creating any objects for
+     * the vertices, edges or faces. Points at the same position as an earlier point are left out of the mesh.
+     *
+     * @param x The x-coordinates of the points, which are kept by the mesh.
+     * @param y The y-coordinates of the points, which are kept by the mesh.
+     * @param owner The index of the player that owns each point, or {@link IndexedMesh#NONE}.
+     * @return The mesh of the triangulation, which has no faces if all points are collinear.
+     */
+    public IndexedMesh triangulate(double[] x, double[] y, byte[] owner) {
+        xs = x;
+        ys = y;
+        if(x.length < 3 || !sweep()) {
+            return IndexedMesh.fromTriangles(x, y, owner, new int[0], new int[0], 0);
+        }
+
+        // Flip edges on the arrays until the triangulation is Delaunay, and only then build the half-edge structure.
+        legalize();
+        IndexedMesh mesh = IndexedMesh.fromTriangles(x, y, owner, triangles, halfedges, triangleSize);
+
+        // The arrays are no longer needed.
+        xs = ys = null;
+        triangles = halfedges = hullNext = hullPrev = hullTri = hullHash = null;
+        return mesh;
+    }
+
+    /**
+     * Triangulate the points in the coordinate arrays by sweeping a circle around the seed triangle outwards.
+     *
+     * @return False if no seed triangle could be found because all points are collinear, true otherwise.
+     */
+    private boolean sweep() {
+        int n = xs.length;
+
+        // Find the center of the bounding box.
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for(int i = 0; i < n; i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        double bx = (minX + maxX) / 2, by = (minY + maxY) / 2;
+
+        // The seed triangle starts with the point closest to the center, and the point closest to that point.
+        int i0 = -1, i1 = -1, i2 = -1;
+        double minDistance = Double.POSITIVE_INFINITY;
+        for(int i = 0; i < n; i++) {
+            double d = distance(bx, by, xs[i], ys[i]);
+            if(d < minDistance) {
+                i0 = i;
+                minDistance = d;
+            }
+        }
+        minDistance = Double.POSITIVE_INFINITY;
+        for(int i = 0; i < n; i++) {
+            double d = distance(xs[i0], ys[i0], xs[i], ys[i]);
+            if(i != i0 && d < minDistance) {
+                i1 = i;
+                minDistance = d;
+            }
+        }
+
+        // The third point is the one that forms the smallest circumcircle with the first two.
+        double minRadius = Double.POSITIVE_INFINITY;
+        for(int i = 0; i < n; i++) {
+            if(i == i0 || i == i1) continue;
+            double r = circumRadius(xs[i0], ys[i0], xs[i1], ys[i1], xs[i], ys[i]);
+            if(r < minRadius) {
+                i2 = i;
+                minRadius = r;
+            }
+        }
+        if(minRadius == Double.POSITIVE_INFINITY) return false;
+
+        // Make sure that the seed triangle is in CCW order.
+        if(Predicates.orient2d(xs[i0], ys[i0], xs[i1], ys[i1], xs[i2], ys[i2]) < 0) {
+            int t = i1;
+            i1 = i2;
+            i2 = t;
+        }
+        circumCenter(xs[i0], ys[i0], xs[i1], ys[i1], xs[i2], ys[i2]);
+
+        // Sort the points by their distance to the circumcenter of the seed triangle.
+        Integer[] order = new Integer[n];
+        double[] distances = new double[n];
+        for(int i = 0; i < n; i++) {
+            order[i] = i;
+            distances[i] = distance(cx, cy, xs[i], ys[i]);
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(distances[a], distances[b]));
+
+        // Start with the seed triangle as the convex hull.
+        int maxTriangles = Math.max(2 * n - 5, 1);
+        triangles = new int[maxTriangles * 3];
+        halfedges = new int[maxTriangles * 3];
+        triangleSize = 0;
+        hullNext = new int[n];
+        hullPrev = new int[n];
+        hullTri = new int[n];
+        hullHash = new int[(int) Math.ceil(Math.sqrt(n))];
+        Arrays.fill(hullHash, -1);
+
+        hullNext[i0] = hullPrev[i2] = i1;
+        hullNext[i1] = hullPrev[i0] = i2;
+        hullNext[i2] = hullPrev[i1] = i0;
+        hullTri[i0] = 0;
+        hullTri[i1] = 1;
+        hullTri[i2] = 2;
+        hullHash[hashKey(xs[i0], ys[i0])] = i0;
+        hullHash[hashKey(xs[i1], ys[i1])] = i1;
+        hullHash[hashKey(xs[i2], ys[i2])] = i2;
+        addTriangle(i0, i1, i2, -1, -1, -1);
+
+        // Add the remaining points in order of distance, such that every point is outside of the current hull.
+        int previous = -1;
+        for(int i : order) {
+            if(i == i0 || i == i1 || i == i2) continue;
+
+            // Skip points at the same position as the previous point.
+            if(previous != -1 && xs[i] == xs[previous] && ys[i] == ys[previous]) continue;
+            previous = i;
+
+            addToHull(i);
+        }
+        return true;
+    }
+
+    /**
+     * Connect a point outside of the hull to all hull edges it can see, and update the hull.
+     *
+     * @param i The index of the point to add.
+     */
+    private void addToHull(int i) {
+        double x = xs[i], y = ys[i];
+
+        // Find a hull vertex close to the point, using the angle around the seed circumcenter.
+        int start = 0;
+        int key = hashKey(x, y);
+        for(int j = 0; j < hullHash.length; j++) {
+            start = hullHash[(key + j) % hullHash.length];
+            if(start != -1 && start != hullNext[start]) break;
+        }
+
+        // Walk along the hull until we find an edge that is visible from the point.
+        start = hullPrev[start];
+        int e = start;
+        while(!isVisible(x, y, e, hullNext[e])) {
+            e = hullNext[e];
+
+            // Only a point that coincides with a hull vertex can see none of the edges, so we skip it.
+            if(e == start) return;
+        }
+
+        // Add the first triangle, between the point and the visible edge.
+        int t = addTriangle(e, i, hullNext[e], -1, -1, hullTri[e]);
+        hullTri[i] = t + 1;
+        hullTri[e] = t;
+
+        // Walk forward along the hull, adding triangles for all edges that are visible as well.
+        int next = hullNext[e];
+        while(isVisible(x, y, next, hullNext[next])) {
+            int q = hullNext[next];
+            t = addTriangle(next, i, q, hullTri[i], -1, hullTri[next]);
+            hullTri[i] = t + 1;
+
+            // The vertex is no longer part of the hull.
+            hullNext[next] = next;
+            next = q;
+        }
+
+        // Walk backward along the hull as well, if we started at the first visible edge.
+        if(e == start) {
+            int q = hullPrev[e];
+            while(isVisible(x, y, q, e)) {
+                t = addTriangle(q, i, e, -1, hullTri[e], hullTri[q]);
+                hullTri[q] = t;
+
+                // The vertex is no longer part of the hull.
+                hullNext[e] = e;
+                e = q;
+                q = hullPrev[e];
+            }
+        }
+
+        // Insert the point into the hull, between e and next.
+        hullPrev[i] = e;
+        hullNext[e] = i;
+        hullPrev[next] = i;
+        hullNext[i] = next;
+        hullHash[hashKey(x, y)] = i;
+        hullHash[hashKey(xs[e], ys[e])] = e;
+    }
+
+    /**
+     * Add a triangle to the arrays, and link its half-edges to their twins.
+     *
+     * @param a The first corner of the triangle.
+     * @param b The second corner of the triangle.
+     * @param c The third corner of the triangle.
+     * @param ab The twin of the half-edge from a to b, or -1 if it has none yet.
+     * @param bc The twin of the half-edge from b to c, or -1 if it has none yet.
+     * @param ca The twin of the half-edge from c to a, or -1 if it has none yet.
+     * @return The index of the half-edge from a to b.
+     */
+    private int addTriangle(int a, int b, int c, int ab, int bc, int ca) {
+        int t = triangleSize;
+        triangles[t] = a;
+        triangles[t + 1] = b;
+        triangles[t + 2] = c;
+        link(t, ab);
+        link(t + 1, bc);
+        link(t + 2, ca);
+        triangleSize += 3;
+        return t;
+    }
+
+    /**
+     * Make the two half-edges twins of each other.
+     */
+    private void link(int a, int b) {
+        halfedges[a] = b;
+        if(b != -1) halfedges[b] = a;
+    }
+
+    /**
+     * Create the half-edges and faces for the triangles in the arrays.
+     *
+     * @param context The context of the mesh the faces will be part of.
+     * @param vertices The vertices the indices refer to.
+     * @return The triangle faces in the triangulation.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<TriangleFace> toFaces(MeshContext context, List<Vertex<TriangleFace>> vertices) {
+        // Create a half-edge pair for every edge.
+        Edge<TriangleFace>[] edges = new Edge[triangleSize];
+        for(int h = 0; h < triangleSize; h++) {
+            if(edges[h] != null) continue;
+            int next = h % 3 == 2 ? h - 2 : h + 1;
+            edges[h] = new Edge<>(vertices.get(triangles[h]), vertices.get(triangles[next]));
+            if(halfedges[h] != -1) edges[halfedges[h]] = edges[h].twin;
+        }
+
+        // Create a face for every triangle. The half-edges on the convex hull remain without a face.
+        List<TriangleFace> faces = new ArrayList<>(triangleSize / 3);
+        for(int t = 0; t < triangleSize; t += 3) {
+            faces.add(new TriangleFace(context, edges[t], edges[t + 1], edges[t + 2]));
+        }
+
+        // The arrays are no longer needed.
+        xs = ys = null;
+        triangles = halfedges = hullNext = hullPrev = hullTri = hullHash = null;
+        return faces;
+    }
+
+    /**
+     * Flip illegal edges until the triangulation is Delaunay.
+     * Every interior edge is checked once, and the edges surrounding a flipped edge are checked again.
+     *
+     * @param context The context of the mesh the faces are part of.
+     * @param faces The faces of the triangulation.
+     * @return The faces of the Delaunay triangulation.
+     */
+    private List<TriangleFace> flip(MeshContext context, List<TriangleFace> faces) {
+        // Start with all interior edges on the stack, one of every pair.
+        Deque<Edge<TriangleFace>> stack = new ArrayDeque<>();
+        for(TriangleFace face : faces) {
+            for(Edge<TriangleFace> e : face) {
+                if(e.twin.incidentFace != null && e.id < e.twin.id) stack.push(e);
+            }
+        }
+
+        // Keep flipping until there are no illegal edges left.
+        List<TriangleFace> result = new ArrayList<>(faces.size());
+        while(!stack.isEmpty()) {
+            Edge<TriangleFace> e = stack.pop();
+
+            // Skip edges that have been flipped away, and edges on the convex hull.
+            if(e.incidentFace == null || e.twin.incidentFace == null) continue;
+
+            if(e.incidentFace.isIllegal(e) && isConvex(e)) {
+                // The four edges around the flipped edge might have become illegal.
+                stack.push(e.next());
+                stack.push(e.previous());
+                stack.push(e.twin.next());
+                stack.push(e.twin.previous());
+                result.addAll(swapEdge(context, e));
+            }
+        }
+
+        // Only keep the faces that are still part of the triangulation.
+        faces.addAll(result);
+        List<TriangleFace> live = new ArrayList<>(faces.size());
+        for(TriangleFace face : faces) {
+            if(face.outerComponent.incidentFace == face) live.add(face);
+        }
+        return live;
+    }
+
+    /**
+     * Flip illegal edges in the triangle arrays until the triangulation is Delaunay.
+     * This is the same pass as {@link #flip(MeshContext, List)}, but it rewrites the corners of the two triangles
+     * next to an edge in place instead of creating new faces.
+     */
+    private void legalize() {
+        // Start with all interior edges on the stack, one of every pair.
+        int[] stack = new int[triangleSize];
+        int size = 0;
+        for(int h = 0; h < triangleSize; h++) {
+            if(halfedges[h] > h) stack[size++] = h;
+        }
+
+        // Keep flipping until there are no illegal edges left.
+        while(size > 0) {
+            int a = stack[--size];
+            int b = halfedges[a];
+
+            // Skip edges on the convex hull.
+            if(b == -1) continue;
+
+            // The edge a goes from pr to pl in the triangle (pr, pl, p0), and its twin b is part of (pl, pr, p1).
+            int a0 = a - a % 3, b0 = b - b % 3;
+            int al = a0 + (a + 1) % 3, ar = a0 + (a + 2) % 3;
+            int br = b0 + (b + 1) % 3, bl = b0 + (b + 2) % 3;
+            int p0 = triangles[ar], pr = triangles[a], pl = triangles[al], p1 = triangles[bl];
+
+            if(Predicates.inCircle(xs[pr], ys[pr], xs[pl], ys[pl], xs[p0], ys[p0], xs[p1], ys[p1]) > 0
+                    && Predicates.orient2d(xs[p1], ys[p1], xs[pl], ys[pl], xs[p0], ys[p0]) > 0
+                    && Predicates.orient2d(xs[p0], ys[p0], xs[pr], ys[pr], xs[p1], ys[p1]) > 0) {
+                // Turn the triangles into (p1, pl, p0) and (p0, pr, p1), such that ar and bl form the new diagonal.
+                triangles[a] = p1;
+                triangles[b] = p0;
+                link(a, halfedges[bl]);
+                link(b, halfedges[ar]);
+                link(ar, bl);
+
+                // The four edges around the flipped edge might have become illegal.
+                if(size + 4 > stack.length) stack = Arrays.copyOf(stack, 2 * stack.length + 4);
+                stack[size++] = a;
+                stack[size++] = al;
+                stack[size++] = b;
+                stack[size++] = br;
+            }
+        }
+    }
+
+    /**
+     * Check whether the two faces next to the edge form a convex quadrilateral, such that the edge can be flipped.
+     *
+     * @param e The edge we want to flip.
+     * @return True if the other diagonal of the quadrilateral is inside of it.
+     */
+    private static boolean isConvex(Edge<TriangleFace> e) {
+        Vertex<TriangleFace> v = e.origin, w = e.twin.origin;
+        Vertex<TriangleFace> v1 = e.previous().origin, v2 = e.twin.previous().origin;
+        return DivideAndConquerTriangulator.ccw(v2, w, v1) && DivideAndConquerTriangulator.ccw(v1, v, v2);
+    }
+
+    /**
+     * Swap the edge to the other diagonal of the quadrilateral formed by its two faces.
+     * The swapped edge is marked as removed by clearing the faces of its half-edges.
+     *
+     * @param context The context of the mesh the faces are part of.
+     * @param e The edge we want to swap out with another edge.
+     * @return The two new faces.
+     */
+    private static List<TriangleFace> swapEdge(MeshContext context, Edge<TriangleFace> e) {
+        // Use the same names as in DelaunayMesh#swapEdge.
+        Vertex<TriangleFace> v1 = e.previous().origin;
+        Vertex<TriangleFace> v2 = e.twin.previous().origin;
+        Edge<TriangleFace> tl = e.previous();
+        Edge<TriangleFace> tr = e.next();
+        Edge<TriangleFace> bl = e.twin.next();
+        Edge<TriangleFace> br = e.twin.previous();
+
+        // Create the new edge and faces.
+        Edge<TriangleFace> v2_v1 = new Edge<>(v2, v1);
+        TriangleFace f1 = new TriangleFace(context, v2_v1, tl, bl);
+        TriangleFace f2 = new TriangleFace(context, v2_v1.twin, br, tr);
+
+        // The end points of the old edge should not refer to it anymore.
+        bl.origin.incidentEdge = bl;
+        tr.origin.incidentEdge = tr;
+        e.incidentFace = e.twin.incidentFace = null;
+        return Arrays.asList(f1, f2);
+    }
+
+    /**
+     * Check whether the hull edge from a to b is visible from the given point.
+     *
+     * @return True if the point is strictly on the outer side of the hull edge.
+     */
+    private boolean isVisible(double x, double y, int a, int b) {
+        return Predicates.orient2d(xs[a], ys[a], xs[b], ys[b], x, y) < 0;
+    }
+
+    /**
+     * Find the slot in the hull hash for the given point.
+     *
+     * @return The index in the hash based on the angle of the point around the seed circumcenter.
+     */
+    private int hashKey(double x, double y) {
+        // A monotone replacement of the angle, in the range [0, 1).
+        double dx = x - cx, dy = y - cy;
+        double p = dx / (Math.abs(dx) + Math.abs(dy));
+        double angle = (dy > 0 ? 3 - p : 1 + p) / 4;
+        return (int) Math.floor(angle * hullHash.length) % hullHash.length;
+    }
+
+    /**
+     * Calculate the circumcenter of the given triangle, and store it as the sweep center.
+     */
+    private void circumCenter(double ax, double ay, double bx, double by, double px, double py) {
+        double dx = bx - ax, dy = by - ay;
+        double ex = px - ax, ey = py - ay;
+        double bl = dx * dx + dy * dy;
+        double cl = ex * ex + ey * ey;
+        double d = 0.5 / (dx * ey - dy * ex);
+        cx = ax + (ey * bl - dy * cl) * d;
+        cy = ay + (dx * cl - ex * bl) * d;
+    }
+
+    /**
+     * Calculate the squared radius of the circumcircle of the given triangle.
+     *
+     * @return The squared radius, or infinity if the points are collinear.
+     */
+    private static double circumRadius(double ax, double ay, double bx, double by, double px, double py) {
+        double dx = bx - ax, dy = by - ay;
+        double ex = px - ax, ey = py - ay;
+        double bl = dx * dx + dy * dy;
+        double cl = ex * ex + ey * ey;
+        double det = dx * ey - dy * ex;
+        if(det == 0) return Double.POSITIVE_INFINITY;
+
+        double x = (ey * bl - dy * cl) * 0.5 / det;
+        double y = (dx * cl - ex * bl) * 0.5 / det;
+        return x * x + y * y;
+    }
+
+    /**
+     * Calculate the squared distance between the two points.
+     */
+    private static double distance(double ax, double ay, double bx, double by) {
+        double dx = ax - bx, dy = ay - by;
+        return dx * dx + dy * dy;
+    }
+}
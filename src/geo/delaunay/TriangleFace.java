@@ -1,18 +1,16 @@
 package geo.delaunay;
 
-import geo.store.gui.Circle;
-import geo.store.gui.Label;
-import geo.store.gui.Polygon;
-import geo.store.gui.Point;
-
 import geo.store.halfedge.Edge;
 import geo.store.halfedge.Face;
 import geo.store.halfedge.Vertex;
 import geo.store.math.Point2d;
 import geo.store.math.Triangle2d;
+import geo.util.Predicates;
 
-import java.awt.*;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -22,45 +20,27 @@ public class TriangleFace extends Triangle2d implements Iterable<Edge<TriangleFa
     // Here, we have one half edge that is part of the cycle enclosing the face.
     public Edge<TriangleFace> outerComponent;
 
-    // Give each edge an id, such that we can reliably delete and track it.
-    private static int counter = 0;
+    // Give each face an id that is unique within its mesh, such that we can reliably delete and track it.
     public final int id;
 
-    // The label that we can drawPoints in the gui.
-    private final Label label;
-
-    // The shape of this label.
-    private final Polygon shape;
-
-    // The circum circle we can drawPoints in the gui.
-    private final Circle circumCircleShape;
-
-    // The circum center we can drawPoints in the gui.
-    private final Point circumCenterShape;
-
-    // We will always have an outer face, so keep a static reference to it.
-    public final static TriangleFace outerFace = new OuterTriangleFace();
-
-    // Values that influence the containment test.
-    private final double epsilon = 10e-6;
-
     // A list of edges this triangle originally consisted of.
     private final List<Edge<TriangleFace>> edges;
 
     /**
      * Create a triangle face, given the three edges surrounding it in counter clock wise order.
      *
+     * @param context The context of the mesh the face is part of.
      * @param e1 The first edge of the triangle.
      * @param e2 The second edge of the triangle.
      * @param e3 The third edge of the triangle.
      */
-    public TriangleFace(Edge<TriangleFace> e1, Edge<TriangleFace> e2, Edge<TriangleFace> e3) {
+    public TriangleFace(MeshContext context, Edge<TriangleFace> e1, Edge<TriangleFace> e2, Edge<TriangleFace> e3) {
         super(e1.origin, e2.origin, e3.origin);
 
-        this.edges = Arrays.asList(e1, e2, e3);
+        this.edges = Collections.unmodifiableList(Arrays.asList(e1, e2, e3));
 
         // Assign a new id.
-        id = counter++;
+        id = context.nextFaceId();
 
         // Make the pointers of the triangle sound. I.e. make sure that the cycle is correct, set face relations etc.
         e1.setNext(e2);
@@ -73,12 +53,6 @@ public class TriangleFace extends Triangle2d implements Iterable<Edge<TriangleFa
         // Let the first edge be the outer component.
         outerComponent = e1;
 
-        // Create a shapes.
-        shape = new Polygon("", e1.origin, e2.origin, e3.origin);
-        label = new Label(c.x, c.y, "f" + id);
-        circumCircleShape = new Circle(cc.x, cc.y, ccr);
-        circumCenterShape = new Point(cc.x, cc.y, Color.magenta);
-
         if(e1.origin.y == e2.origin.y && e2.origin.y == e3.origin.y) {
             System.out.println("Equal ys");
         }
@@ -87,22 +61,17 @@ public class TriangleFace extends Triangle2d implements Iterable<Edge<TriangleFa
     /**
      * Create a triangle face, given the three edges surrounding it in counter clock wise order.
      *
+     * @param context The context of the mesh the face is part of.
      * @param p1 The first corner point of the triangle.
      * @param p2 The second corner point of the triangle.
      * @param p3 The third corner point of the triangle.
      */
-    private TriangleFace(Point2d p1, Point2d p2, Point2d p3) {
+    private TriangleFace(MeshContext context, Point2d p1, Point2d p2, Point2d p3) {
         super(p1, p2, p3);
 
         // Assign a new id.
-        id = counter++;
-
-        // Create no label.
-        label = null;
-        circumCircleShape = null;
-        shape = null;
-        circumCenterShape = null;
-        this.edges = new ArrayList<>();
+        id = context.nextFaceId();
+        this.edges = Collections.emptyList();
     }
 
     /**
@@ -117,6 +86,16 @@ public class TriangleFace extends Triangle2d implements Iterable<Edge<TriangleFa
         return circumCircleContains(edge.twin.previous().origin) || edge.twin.incidentFace.circumCircleContains(edge.previous().origin);
     }
 
+    /**
+     * Get the edges this triangle was created with. In contrast to the cycle around the face, these never change, such
+     * that they can be visited safely while another thread changes the triangulation.
+     *
+     * @return An unmodifiable list of the edges in counter clock wise order, which is empty for the outer face.
+     */
+    public List<Edge<TriangleFace>> getOriginalEdges() {
+        return edges;
+    }
+
     /**
      * Get the string representation of the face.
      *
@@ -149,50 +128,6 @@ public class TriangleFace extends Triangle2d implements Iterable<Edge<TriangleFa
         return edges;
     }
 
-    /**
-     * Draw the shape.
-     *
-     * @param g The graphics object to draw in.
-     */
-    public void drawFace(Graphics2D g) {
-        // We draw the shape in a grey color, with alpha.
-        g.setColor(new Color(210, 210, 210, 50));
-
-        if(shape != null) shape.draw(g);
-    }
-
-    /**
-     * Draw the shape.
-     *
-     * @param g The graphics object to draw in.
-     */
-    public void drawCircumCenter(Graphics2D g) {
-        // Draw the label stored in the object.
-        if(circumCenterShape != null) circumCenterShape.draw(g);
-    }
-
-    /**
-     * Draw the shape.
-     *
-     * @param g The graphics object to draw in.
-     */
-    public void drawCircumCircle(Graphics2D g) {
-        // We draw circum circles in a magenta color.
-        g.setColor(Color.magenta);
-
-        // Draw the label stored in the object.
-        if(circumCircleShape != null) circumCircleShape.draw(g);
-    }
-
-    /**
-     * Draw the shape.
-     *
-     * @param g The graphics object to draw in.
-     */
-    public void drawLabel(Graphics2D g) {
-        if(label != null) label.draw(g);
-    }
-
     /**
      * Iterate over all the edges that can be found in the next cycle.
      *
@@ -208,25 +143,28 @@ public class TriangleFace extends Triangle2d implements Iterable<Edge<TriangleFa
     }
 
     /**
-     * Special class for the outer face.
+     * Special class for the outer face. Every mesh has its own outer face, which is owned by its context.
      */
     public static class OuterTriangleFace extends TriangleFace {
         /**
          * Create an outer face.
+         *
+         * @param context The context of the mesh the face is the outer face of.
          */
-        private OuterTriangleFace() {
-            super(new Point2d(), new Point2d(), new Point2d());
+        OuterTriangleFace(MeshContext context) {
+            super(context, new Point2d(), new Point2d(), new Point2d());
         }
 
         /**
          * The outer face always contains the points, so override it to always return the same value.
          *
          * @param p The point we want to check the position of.
+         * @param result The holder in which the result is written.
          * @return Always return inside.
          */
         @Override
-        public ContainsResult contains(Point2d p) {
-            return new ContainsResult(Location.INSIDE, this, null);
+        public Location contains(Point2d p, ContainsResult result) {
+            return result.set(Location.INSIDE, this, null);
         }
     }
 
@@ -238,35 +176,49 @@ public class TriangleFace extends Triangle2d implements Iterable<Edge<TriangleFa
      *         Next to the location, the face and appropriate edge is returned when applicable.
      */
     public ContainsResult contains(Point2d p) {
-        if(doesBoundingBoxContain(p)) {
-            // First check if one of the edges contains the point by measuring the distances.
-            Edge<TriangleFace> edge;
-            if((edge = isPointOnEdge(p)) != null) return new ContainsResult(Location.BORDER, this, edge);
+        ContainsResult result = new ContainsResult();
+        contains(p, result);
+        return result;
+    }
 
-            // If not the above, do a side check to check containment.
-            if (checkRelativeSide(p1, p2, p) >= 0 && checkRelativeSide(p2, p3, p) >= 0
-                    && checkRelativeSide(p3, p1, p) >= 0) return new ContainsResult(Location.INSIDE, this, null);
+    /**
+     * Check whether the face contains the given point, without allocating any objects.
+     *
+     * @param p The point to check the containment of.
+     * @param result The holder in which the location, and the face and edge when applicable, are written.
+     * @return Returns INSIDE if inside, BORDER if the point is on the border, OUTSIDE if outside the face.
+     */
+    public Location contains(Point2d p, ContainsResult result) {
+        if(doesBoundingBoxContain(p)) {
+            // The point is inside when it is to the left of, or on, all edges. Remember the edge it is on, if any.
+            Edge<TriangleFace> border = null;
+            for(int i = 0; i < edges.size(); i++) {
+                Edge<TriangleFace> e = edges.get(i);
+                double side = Predicates.orient2d(e.origin, e.twin.origin, p);
+                if(side < 0) return result.set(Location.OUTSIDE, null, null);
+                if(side == 0 && border == null) border = e;
+            }
+
+            // If the point is on one of the edges, report the edge.
+            if(border != null) return result.set(Location.BORDER, this, border);
+            return result.set(Location.INSIDE, this, null);
         }
 
         // We can be certain that it is not inside or on the border, so return outside.
-        return new ContainsResult(Location.OUTSIDE, null, null);
-    }
-
-    private double checkRelativeSide(Point2d p1, Point2d p2, Point2d p) {
-        return (p2.y - p1.y) * (p.x - p1.x) + (-p2.x + p1.x) * (p.y - p1.y);
+        return result.set(Location.OUTSIDE, null, null);
     }
 
     /**
-     * Check if the given point is within the expected bounds.
+     * Check if the given point is within the bounding box of the triangle.
      *
      * @param p The point to check the location of.
-     * @return True if the point is close to the triangle, false otherwise.
+     * @return True if the point is inside of, or on the boundary of, the bounding box of the triangle.
      */
     public boolean doesBoundingBoxContain(Point2d p) {
-        double xMin = Math.min(Math.min(p1.x, p2.x), p3.x) - epsilon;
-        double xMax = Math.max(Math.max(p1.x, p2.x), p3.x) + epsilon;
-        double yMin = Math.min(Math.min(p1.y, p2.y), p3.y) - epsilon;
-        double yMax = Math.max(Math.max(p1.y, p2.y), p3.y) + epsilon;
+        double xMin = Math.min(Math.min(p1.x, p2.x), p3.x);
+        double xMax = Math.max(Math.max(p1.x, p2.x), p3.x);
+        double yMin = Math.min(Math.min(p1.y, p2.y), p3.y);
+        double yMax = Math.max(Math.max(p1.y, p2.y), p3.y);
 
         return !(p.x < xMin || p.x > xMax || p.y < yMin || p.y > yMax);
     }
@@ -275,46 +227,34 @@ public class TriangleFace extends Triangle2d implements Iterable<Edge<TriangleFa
      * Check if the point is on one of the edges.
      *
      * @param p The point we want to check the location of.
-     * @return Whether the point is close enough to the edge to be considered on the edge.
+     * @return The edge the point is exactly on, or null if the point is not on any of the edges.
      */
     public Edge<TriangleFace> isPointOnEdge(Point2d p) {
-        // Find an edge which the point can be on, preferably the one with smallest distance.
-        Map<Edge<TriangleFace>, Double> distances = new HashMap<>();
-
-        // Gather the distance data, take absolute values.
-        for (Edge<TriangleFace> e : edges) {
-            distances.put(e, Math.abs(e.getDistancePointToSegment(p)));
+        for(int i = 0; i < edges.size(); i++) {
+            if(edges.get(i).isPointOnEdge(p)) return edges.get(i);
         }
-
-        // Find the minimum.
-        Optional<Map.Entry<Edge<TriangleFace>, Double>> min = distances.entrySet().stream().min(Comparator.comparing(Map.Entry::getValue));
-
-        // Check if it is close.
-        return min.isPresent() && equalsZero(min.get().getValue()) ? min.get().getKey() : null;
-    }
-
-    /**
-     * Check if a value is equal to 0 considering floating point errors.
-     *
-     * @param v1 The value we want to check zero equality of.
-     * @return Whether v1 is close enough to 0 to be considered 0.
-     */
-    public boolean equalsZero(double v1) {
-        return Math.abs(v1) < epsilon * epsilon;
+        return null;
     }
 
     /**
      * A wrapper class that helps with containment checks.
+     * The result is mutable, such that a caller can reuse a single instance for many checks.
      */
-    public class ContainsResult {
+    public static class ContainsResult {
         // The location we found the point relative to this triangle.
-        public final Location location;
+        public Location location = Location.OUTSIDE;
 
         // The face we found this point in, if applicable.
-        public final TriangleFace face;
+        public TriangleFace face;
 
         // The edge the point is on, if applicable.
-        public final Edge<TriangleFace> edge;
+        public Edge<TriangleFace> edge;
+
+        /**
+         * Create an empty result, which can be filled by a containment check.
+         */
+        public ContainsResult() {
+        }
 
         /**
          * Create a result.
@@ -324,9 +264,32 @@ public class TriangleFace extends Triangle2d implements Iterable<Edge<TriangleFa
          * @param edge The edge the point is on, if applicable.
          */
         public ContainsResult(Location location, TriangleFace face, Edge<TriangleFace> edge) {
+            set(location, face, edge);
+        }
+
+        /**
+         * Overwrite the result.
+         *
+         * @param location The location relative to the face.
+         * @param face The face the result is in, if applicable.
+         * @param edge The edge the point is on, if applicable.
+         * @return The location.
+         */
+        public Location set(Location location, TriangleFace face, Edge<TriangleFace> edge) {
             this.location = location;
             this.face = face;
             this.edge = edge;
+            return location;
+        }
+
+        /**
+         * Copy the given result into this result.
+         *
+         * @param result The result to copy.
+         * @return The location.
+         */
+        public Location set(ContainsResult result) {
+            return set(result.location, result.face, result.edge);
         }
     }
 
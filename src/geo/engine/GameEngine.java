@@ -4,8 +4,9 @@ import geo.controller.GameController;
 import geo.gui.GUI;
 
 import geo.player.*;
+import geo.state.GameSnapshot;
 import geo.state.GameState;
-import geo.voronoi.VoronoiDiagram;
+import geo.voronoi.ScoreLedger;
 
 import java.awt.*;
 import java.io.File;
@@ -196,16 +197,17 @@ public class GameEngine {
      * Update the count and area displays in the GUI of the two players.
      */
     public void updatePlayerCounters() {
-        // Update the status, and ask for a game panel redraw.
-        VoronoiDiagram d = state.getVoronoiDiagram();
+        // Update the status, and ask for a game panel redraw. Read everything from the same snapshot.
+        GameSnapshot snapshot = state.getSnapshot();
+        ScoreLedger.Score score = snapshot.getScore();
 
         // First, calculate the area in percentages.
         Dimension dim = gui.getGamePanelDimensions();
         int t = dim.width * dim.height;
-        int redArea = (int) Math.round(100 * (d.getAreaRed() / t));
-        int blueArea = (int) Math.round(100 * (d.getAreaBlue() / t));
+        int redArea = (int) Math.round(100 * (score.getAreaRed() / t));
+        int blueArea = (int) Math.round(100 * (score.getAreaBlue() / t));
 
-        gui.updateGameStateCounters(state.getNumberOfRedPoints(), state.getNumberOfBluePoints(), redArea, blueArea);
+        gui.updateGameStateCounters(snapshot.getNumberOfRedPoints(), snapshot.getNumberOfBluePoints(), redArea, blueArea);
         gui.redrawGamePanel();
     }
 
@@ -214,17 +216,18 @@ public class GameEngine {
      * @return A string containing the number of points and the areas the players posses.
      */
     public String getScoreDataAsString() {
-        // Update the status, and ask for a game panel redraw.
-        VoronoiDiagram d = state.getVoronoiDiagram();
+        // Read the points and the areas from the same snapshot.
+        GameSnapshot snapshot = state.getSnapshot();
+        ScoreLedger.Score score = snapshot.getScore();
 
         // First, calculate the area in percentages.
         Dimension dim = gui.getGamePanelDimensions();
         int t = dim.width * dim.height;
-        double redArea = d.getAreaRed() / t;
-        double blueArea = d.getAreaBlue() / t;
+        double redArea = score.getAreaRed() / t;
+        double blueArea = score.getAreaBlue() / t;
 
         // Now, build the string.
-        return state.getNumberOfRedPoints() + "; " + state.getNumberOfBluePoints() + "; " + redArea + "; " + blueArea;
+        return snapshot.getNumberOfRedPoints() + "; " + snapshot.getNumberOfBluePoints() + "; " + redArea + "; " + blueArea;
     }
 
     public void startTrials() {
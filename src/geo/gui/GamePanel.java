@@ -1,13 +1,18 @@
 package geo.gui;
 
 import geo.delaunay.TriangleFace;
+import geo.state.GameSnapshot;
 import geo.state.GameState;
 import geo.store.halfedge.Edge;
+import geo.store.halfedge.Face;
 import geo.store.halfedge.Vertex;
+import geo.voronoi.VoronoiDiagram;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.Set;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.util.Collection;
 
 /**
  * The panel in which the game is played.
@@ -19,6 +24,9 @@ public class GamePanel extends JPanel {
     // The game state we will attempt to render.
     private GameState state;
 
+    // Creates and caches the shapes of the objects we draw.
+    private final MeshRenderer renderer = new MeshRenderer();
+
     /**
      * Creates a new <code>JPanel</code> with a double buffer and a flow layout.
      *
@@ -26,6 +34,14 @@ public class GamePanel extends JPanel {
      */
     public GamePanel(GUI gui) {
         this.gui = gui;
+
+        // The Voronoi diagram is clipped to the panel, so the state should know its size.
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                if(state != null) state.setBoardSize(getSize());
+            }
+        });
     }
 
     /**
@@ -35,6 +51,7 @@ public class GamePanel extends JPanel {
      */
     void setState(GameState state) {
         this.state = state;
+        state.setBoardSize(getSize());
     }
 
     /**
@@ -50,30 +67,55 @@ public class GamePanel extends JPanel {
         Graphics2D g2 = (Graphics2D) g;
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
+        // Draw everything from the same snapshot, such that we never see a move that is only partially applied.
+        GameSnapshot snapshot = state.getSnapshot();
+
         // Get the faces we currently have to drawPoints.
-        Set<TriangleFace> faces = state.getTriangulatedFaces();
+        Collection<TriangleFace> faces = snapshot.getTriangulatedFaces();
 
         // Depending on the options in the GUI, we want to drawPoints/not drawPoints certain components.
-        if(gui.drawVoronoiDiagram() && state.getVoronoiDiagram() != null) state.getVoronoiDiagram().draw(g2);
-        if(gui.drawDelaunayTriangulation()) drawDelaunayTriangulation(g2, faces);
+        if(gui.drawVoronoiDiagram() && snapshot.getVoronoiDiagram() != null) drawVoronoiDiagram(g2, snapshot.getVoronoiDiagram());
+        if(gui.drawDelaunayTriangulation()) drawDelaunayTriangulation(g2, snapshot);
         if(gui.drawCircumCenters()) drawCircumCenters(g2, faces);
         if(gui.drawCircumCircles()) drawCircumCircles(g2, faces);
         if(gui.drawDebugLabels()) drawDebugLabels(g2, faces, gui.drawDelaunayTriangulation());
 
         // Lastly, draw the points, as we always want them on top.
-        drawPoints(g2, state);
+        drawPoints(g2, snapshot);
+
+        // Shapes of objects that were not drawn in this frame are no longer needed.
+        renderer.endFrame();
     }
 
     /**
      * Draw the points placed by the players.
      *
      * @param g The graphics object.
-     * @param state The current game state.
+     * @param snapshot The snapshot of the game state to draw.
      */
-    public void drawPoints(Graphics2D g, GameState state) {
+    public void drawPoints(Graphics2D g, GameSnapshot snapshot) {
         // Paint all the points.
-        for(Vertex v : state.getPoints()) {
-            v.drawPoint(g);
+        for(Vertex v : snapshot.getPoints()) {
+            renderer.drawPoint(g, v);
+        }
+    }
+
+    /**
+     * Draw the faces and edges of the Voronoi diagram.
+     *
+     * @param g The graphics object.
+     * @param diagram The Voronoi diagram.
+     */
+    public void drawVoronoiDiagram(Graphics2D g, VoronoiDiagram diagram) {
+        // Draw the areas first, from the raster of the owners of the pixels.
+        renderer.drawOwnership(g, diagram.getOwnershipMap());
+
+        // Now draw all the edges, in black.
+        g.setColor(Color.black);
+
+        // Draw all edges as a whole, since neighbouring faces share a single pair of which only one half is listed.
+        for(Edge<Face> edge : diagram.getEdges()) {
+            renderer.drawSegment(g, edge);
         }
     }
 
@@ -81,19 +123,19 @@ public class GamePanel extends JPanel {
      * Draw the structure of the Delaunay triangulation.
      *
      * @param g The graphics object.
-     * @param faces The faces in the triangulation.
+     * @param snapshot The snapshot of the game state to draw.
      */
-    public void drawDelaunayTriangulation(Graphics2D g, Set<TriangleFace> faces) {
+    public void drawDelaunayTriangulation(Graphics2D g, GameSnapshot snapshot) {
         // Set the lines to be 3 pixels wide.
         g.setStroke(new BasicStroke(3));
 
         // Draw all the edges, using the faces as reference.
-        for(TriangleFace face : faces) {
+        for(TriangleFace face : snapshot.getTriangulatedFaces()) {
             // Draw the face.
-            face.drawFace(g);
+            renderer.drawFace(g, face);
 
-            // Iterate over all the edges in the cycle around the face.
-            for(Edge<TriangleFace> edge : face) {
+            // Iterate over the edges of the face, which do not change when the triangulation is changed.
+            for(Edge<TriangleFace> edge : face.getOriginalEdges()) {
                 // Check if e is related to a symbolic vertex.
                 if(edge.origin instanceof Vertex.SymbolicVertex || edge.twin.origin instanceof Vertex.SymbolicVertex) {
                     // If it is, do not render.
@@ -101,14 +143,14 @@ public class GamePanel extends JPanel {
                 }
 
                 // We use a gray color for triangulation edges. Purple for invalid edges!
-                if(face.isIllegal(edge)) {
+                if(snapshot.isIllegal(edge)) {
                     g.setColor(new Color(160, 0, 255));
                 } else {
                     g.setColor(Color.gray);
                 }
 
                 // Draw the edge.
-                edge.drawEdge(g);
+                renderer.drawEdge(g, edge);
             }
         }
     }
@@ -119,7 +161,7 @@ public class GamePanel extends JPanel {
      * @param g The graphics object.
      * @param faces The faces in the triangulation.
      */
-    public void drawCircumCenters(Graphics2D g, Set<TriangleFace> faces) {
+    public void drawCircumCenters(Graphics2D g, Collection<TriangleFace> faces) {
         // Draw all the edges, using the faces as reference.
         for(TriangleFace face : faces) {
             if(face instanceof TriangleFace.OuterTriangleFace || face.ccr > 5 * 10e3) {
@@ -127,7 +169,7 @@ public class GamePanel extends JPanel {
             }
 
             // Draw the circumcircle.
-            face.drawCircumCenter(g);
+            renderer.drawCircumCenter(g, face);
         }
     }
 
@@ -137,7 +179,7 @@ public class GamePanel extends JPanel {
      * @param g The graphics object.
      * @param faces The faces in the triangulation.
      */
-    public void drawCircumCircles(Graphics2D g, Set<TriangleFace> faces) {
+    public void drawCircumCircles(Graphics2D g, Collection<TriangleFace> faces) {
         // Set the lines to be 3 pixels wide.
         g.setStroke(new BasicStroke(1));
 
@@ -148,7 +190,7 @@ public class GamePanel extends JPanel {
             }
 
             // Draw the circumcircle.
-            face.drawCircumCircle(g);
+            renderer.drawCircumCircle(g, face);
         }
     }
 
@@ -159,18 +201,18 @@ public class GamePanel extends JPanel {
      * @param faces The faces in the triangulation.
      * @param facesVisible Whether the faces are visible currently...
      */
-    public void drawDebugLabels(Graphics2D g, Set<TriangleFace> faces, boolean facesVisible) {
+    public void drawDebugLabels(Graphics2D g, Collection<TriangleFace> faces, boolean facesVisible) {
         // Set the lines to be 3 pixels wide.
         g.setStroke(new BasicStroke(3));
 
         // Draw all the edges, using the faces as reference.
         for(TriangleFace face : faces) {
             // Draw the face debug label.
-            if(facesVisible) face.drawLabel(g);
+            if(facesVisible) renderer.drawLabel(g, face);
 
-            // Iterate over all the edges in the cycle around the face.
-            for(Edge edge : face) {
-                edge.origin.drawLabel(g);
+            // Iterate over the edges of the face, which do not change when the triangulation is changed.
+            for(Edge edge : face.getOriginalEdges()) {
+                renderer.drawLabel(g, edge.origin);
             }
         }
     }
@@ -0,0 +1,261 @@
+package geo.gui;
+
+import geo.delaunay.TriangleFace;
+import geo.state.GameState;
+import geo.store.gui.Circle;
+import geo.store.gui.IDrawable;
+import geo.store.gui.Label;
+import geo.store.gui.Line;
+import geo.store.gui.Point;
+import geo.store.gui.Polygon;
+import geo.store.halfedge.Edge;
+import geo.store.halfedge.Vertex;
+import geo.store.math.Point2d;
+import geo.voronoi.OwnershipMap;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Creates the drawable shapes for the geometric objects, such that the geometry itself does not carry any gui state.
+ *
+ * Shapes are only created for the objects that are actually drawn. They are cached for as long as the object is drawn
+ * in every frame, and forgotten in the frame after the object is no longer drawn.
+ */
+class MeshRenderer {
+    // The colors used for the Voronoi faces of both players.
+    private static final Color RED_FACE = new Color(255, 0, 0, 100);
+    private static final Color BLUE_FACE = new Color(0, 0, 255, 100);
+
+    // The colors of the values in the ownership map, where pixels without an owner are transparent.
+    private static final IndexColorModel OWNERSHIP_COLORS = new IndexColorModel(8, 3,
+            new byte[]{0, (byte) RED_FACE.getRed(), (byte) BLUE_FACE.getRed()},
+            new byte[]{0, (byte) RED_FACE.getGreen(), (byte) BLUE_FACE.getGreen()},
+            new byte[]{0, (byte) RED_FACE.getBlue(), (byte) BLUE_FACE.getBlue()},
+            new byte[]{0, (byte) RED_FACE.getAlpha(), (byte) BLUE_FACE.getAlpha()});
+
+    // The color used for the triangles of the Delaunay triangulation.
+    private static final Color TRIANGLE_FACE = new Color(210, 210, 210, 50);
+
+    // The caches of the shapes of the different kinds of objects.
+    private final ShapeCache<Vertex<?>, Point> points = new ShapeCache<>();
+    private final ShapeCache<Vertex<?>, Label> pointLabels = new ShapeCache<>();
+    private final ShapeCache<Edge<?>, Line> edges = new ShapeCache<>();
+    private final ShapeCache<Edge<?>, Line> segments = new ShapeCache<>();
+    private final ShapeCache<TriangleFace, Polygon> triangles = new ShapeCache<>();
+    private final ShapeCache<TriangleFace, Label> triangleLabels = new ShapeCache<>();
+    private final ShapeCache<TriangleFace, Circle> circumCircles = new ShapeCache<>();
+    private final ShapeCache<TriangleFace, Point> circumCenters = new ShapeCache<>();
+
+    // The image of the most recently drawn ownership map, and the tiles of the map that it shows.
+    private OwnershipMap drawnOwnership;
+    private BufferedImage ownershipImage;
+    private byte[][] ownershipTiles;
+
+    /**
+     * Forget the shapes of all objects that have not been drawn since the previous call.
+     * This should be called once at the end of every frame.
+     */
+    void endFrame() {
+        points.endFrame();
+        pointLabels.endFrame();
+        edges.endFrame();
+        segments.endFrame();
+        triangles.endFrame();
+        triangleLabels.endFrame();
+        circumCircles.endFrame();
+        circumCenters.endFrame();
+    }
+
+    /**
+     * Draw a point placed by one of the players.
+     *
+     * @param g The graphics object to draw in.
+     * @param v The vertex to draw.
+     */
+    void drawPoint(Graphics2D g, Vertex<?> v) {
+        points.get(v, p -> new Point(p.x, p.y, p.player == GameState.PlayerTurn.RED ? Color.RED : Color.BLUE,
+                Vertex.radius)).draw(g);
+    }
+
+    /**
+     * Draw the debug label of a vertex.
+     *
+     * @param g The graphics object to draw in.
+     * @param v The vertex to draw the label of.
+     */
+    void drawLabel(Graphics2D g, Vertex<?> v) {
+        pointLabels.get(v, p -> new Label(p.x, p.y, "v" + p.id)).draw(g);
+    }
+
+    /**
+     * Draw the half of the edge that is closest to its origin. Drawing both half-edges gives the complete edge.
+     *
+     * @param g The graphics object to draw in.
+     * @param e The half-edge to draw.
+     */
+    void drawEdge(Graphics2D g, Edge<?> e) {
+        edges.get(e, h -> new Line(h.origin, h.origin.interpolate(h.twin.origin, 0.5d))).draw(g);
+    }
+
+    /**
+     * Draw the complete edge, from the origin of the half-edge to the origin of its twin. Used for structures that
+     * only list one half-edge of each pair.
+     *
+     * @param g The graphics object to draw in.
+     * @param e One of the half-edges of the edge to draw.
+     */
+    void drawSegment(Graphics2D g, Edge<?> e) {
+        segments.get(e, h -> new Line(h.origin, h.twin.origin)).draw(g);
+    }
+
+    /**
+     * Draw a triangle of the Delaunay triangulation.
+     *
+     * @param g The graphics object to draw in.
+     * @param face The face to draw.
+     */
+    void drawFace(Graphics2D g, TriangleFace face) {
+        // The outer face has no shape.
+        if(face instanceof TriangleFace.OuterTriangleFace) return;
+
+        // We draw the shape in a grey color, with alpha.
+        g.setColor(TRIANGLE_FACE);
+        triangles.get(face, f -> new Polygon("", corners(f.getOriginalEdges()))).draw(g);
+    }
+
+    /**
+     * Draw the circum center of a triangle.
+     *
+     * @param g The graphics object to draw in.
+     * @param face The face to draw the circum center of.
+     */
+    void drawCircumCenter(Graphics2D g, TriangleFace face) {
+        circumCenters.get(face, f -> new Point(f.cc.x, f.cc.y, Color.magenta)).draw(g);
+    }
+
+    /**
+     * Draw the circum circle of a triangle.
+     *
+     * @param g The graphics object to draw in.
+     * @param face The face to draw the circum circle of.
+     */
+    void drawCircumCircle(Graphics2D g, TriangleFace face) {
+        // We draw circum circles in a magenta color.
+        g.setColor(Color.magenta);
+        circumCircles.get(face, f -> new Circle(f.cc.x, f.cc.y, f.ccr)).draw(g);
+    }
+
+    /**
+     * Draw the debug label of a triangle.
+     *
+     * @param g The graphics object to draw in.
+     * @param face The face to draw the label of.
+     */
+    void drawLabel(Graphics2D g, TriangleFace face) {
+        // The outer face has no label.
+        if(face instanceof TriangleFace.OuterTriangleFace) return;
+        triangleLabels.get(face, f -> new Label(f.c.x, f.c.y, "f" + f.id)).draw(g);
+    }
+
+    /**
+     * Draw the areas of the players, as given by the owners of the pixels. Only the tiles that changed since the
+     * previously drawn map are copied into the image, after which the image is drawn as a whole.
+     *
+     * @param g The graphics object to draw in.
+     * @param map The owners of the pixels.
+     */
+    void drawOwnership(Graphics2D g, OwnershipMap map) {
+        if(map != drawnOwnership) {
+            // An empty board has nothing to draw.
+            drawnOwnership = map;
+            if(map.width == 0 || map.height == 0) {
+                ownershipImage = null;
+                return;
+            }
+
+            // Start with a new image when the size of the board has changed.
+            if(ownershipImage == null || ownershipImage.getWidth() != map.width
+                    || ownershipImage.getHeight() != map.height) {
+                ownershipImage = new BufferedImage(map.width, map.height, BufferedImage.TYPE_BYTE_INDEXED,
+                        OWNERSHIP_COLORS);
+                ownershipTiles = new byte[map.getColumns() * map.getRows()][];
+            }
+
+            // Copy the tiles that are not the same as the ones in the image, row by row.
+            byte[] pixels = ((DataBufferByte) ownershipImage.getRaster().getDataBuffer()).getData();
+            for(int row = 0; row < map.getRows(); row++) {
+                for(int column = 0; column < map.getColumns(); column++) {
+                    byte[] tile = map.getTile(column, row);
+                    if(tile == ownershipTiles[row * map.getColumns() + column]) continue;
+                    ownershipTiles[row * map.getColumns() + column] = tile;
+
+                    int x = column * OwnershipMap.TILE_SIZE, y = row * OwnershipMap.TILE_SIZE;
+                    int length = Math.min(OwnershipMap.TILE_SIZE, map.width - x);
+                    for(int j = 0; j < OwnershipMap.TILE_SIZE && y + j < map.height; j++) {
+                        System.arraycopy(tile, j * OwnershipMap.TILE_SIZE, pixels, (y + j) * map.width + x, length);
+                    }
+                }
+            }
+        }
+        if(ownershipImage != null) g.drawImage(ownershipImage, map.originX, map.originY, null);
+    }
+
+    /**
+     * Get the corner points of the given half-edges.
+     *
+     * @param edges The half-edges in the cycle, in order.
+     * @return The origins of the half-edges.
+     */
+    private static Point2d[] corners(List<? extends Edge<?>> edges) {
+        Point2d[] corners = new Point2d[edges.size()];
+        for(int i = 0; i < corners.length; i++) {
+            corners[i] = edges.get(i).origin;
+        }
+        return corners;
+    }
+
+    /**
+     * A cache that keeps the shapes of the objects drawn in the current and the previous frame.
+     *
+     * @param <K> The type of the objects.
+     * @param <V> The type of the shapes.
+     */
+    private static class ShapeCache<K, V extends IDrawable> {
+        // The shapes of the objects drawn in the current frame, and those of the objects drawn in the previous frame.
+        private Map<K, V> current = new IdentityHashMap<>();
+        private Map<K, V> previous = new IdentityHashMap<>();
+
+        /**
+         * Get the shape of the given object, creating it when it was not drawn in this or the previous frame.
+         *
+         * @param key The object to get the shape of.
+         * @param factory The function that creates the shape of the object.
+         * @param <T> The type of the object.
+         * @return The shape of the object.
+         */
+        <T extends K> V get(T key, Function<T, V> factory) {
+            V shape = current.get(key);
+            if(shape == null) {
+                shape = previous.remove(key);
+                if(shape == null) shape = factory.apply(key);
+                current.put(key, shape);
+            }
+            return shape;
+        }
+
+        /**
+         * Forget the shapes of the objects that were not drawn in the current frame.
+         */
+        void endFrame() {
+            previous = current;
+            current = new IdentityHashMap<>(previous.size());
+        }
+    }
+}
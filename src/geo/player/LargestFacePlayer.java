@@ -2,15 +2,14 @@ package geo.player;
 
 import geo.controller.GameController;
 import geo.delaunay.TriangleFace;
+import geo.state.GameSnapshot;
 import geo.state.GameState;
-import geo.store.halfedge.Face;
 import geo.store.halfedge.Vertex;
 import geo.store.math.Vector2d;
 import geo.gui.GUI;
 
 import javax.swing.JPanel;
 import javax.swing.JTextField;
-import java.util.Comparator;
 import java.util.List;
 import java.awt.Point;
 import java.awt.Dimension;
@@ -69,8 +68,11 @@ public class LargestFacePlayer extends AIPlayer {
      * @param state current GameState.
      */
     protected void doMove(GameState state){
+        //Take a single snapshot, such that the points and the Voronoi diagram belong to the same board.
+        GameSnapshot snapshot = state.getSnapshot();
+
         //Look at opponent's points.
-        List<Vertex<TriangleFace>> opponentPoints = (getPlayer().color == GameState.PlayerTurn.RED ? state.getBluePoints() : state.getRedPoints());
+        List<Vertex<TriangleFace>> opponentPoints = (getPlayer().color == GameState.PlayerTurn.RED ? snapshot.getBluePoints() : snapshot.getRedPoints());
 
         //If opponent has not placed any points, then place a point in the centre.
         if (opponentPoints.isEmpty()){
@@ -86,14 +88,22 @@ public class LargestFacePlayer extends AIPlayer {
             return;
         }
 
-        //First, find the largest Face and the point inside that face.
-        Face largestFace = findLargestFace(state);
-        Vertex<TriangleFace> largestPoint = largestFace.centerPoint;
+        //First, find the opponent's point with the largest Voronoi cell. Only the areas are needed, not the faces.
+        Vertex<TriangleFace> largestPoint = snapshot.getVoronoiDiagram().getLargestPoint(getPlayer().color.next());
         //Then, find the nearest other point, since we wish to place our point away from it.
-        //Remove our largestPoint, obviously it would be closest.
-        Vertex<TriangleFace> nearestPoint = state.getPoints().stream()
+        //The search runs on the live board, so it is only answered while the board is still that of the snapshot.
+        //Otherwise, count it as a failed move and try again with a new snapshot, such that a board that keeps changing
+        //cannot keep us busy forever.
+        List<Vertex<TriangleFace>> nearestPoints = state.findNearestPoints(snapshot, largestPoint, 2);
+        if (nearestPoints == null){
+            System.out.println("The board changed while searching for the nearest point.");
+            failedMoves ++;
+            return;
+        }
+        //Skip our largestPoint, obviously it would be closest.
+        Vertex<TriangleFace> nearestPoint = nearestPoints.stream()
                 .filter((a) -> a.id != largestPoint.id)
-                .min(Comparator.comparingDouble(a -> a.distance(largestPoint))).get();
+                .findFirst().get();
         //Find the Vector pointing from nearestPoint to largestPoint,
         Vector2d direction = new Vector2d(largestPoint.x - nearestPoint.x, largestPoint.y - nearestPoint.y).normalize().scale(12);
         // and place our move beside largestPoint in this direction.
@@ -110,19 +120,6 @@ public class LargestFacePlayer extends AIPlayer {
         }
     }
 
-    /**
-     * Find largest Face in Voronoi Diagram according to Face.getArea().
-     * @param state current GameState.
-     * @return Face that has the largest area.
-     */
-    private Face findLargestFace(GameState state){
-        return state.getVoronoiDiagram().getFaces()
-                .stream()
-                .filter((a) -> a.centerPoint.player != getPlayer().color)
-                .max(Comparator.comparingDouble(Face::getArea))
-                .get();
-    }
-
     @Override
     public boolean isDone(){ return isDone; }
 
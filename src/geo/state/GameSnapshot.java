@@ -0,0 +1,246 @@
+package geo.state;
+
+import geo.delaunay.TriangleFace;
+import geo.store.halfedge.Edge;
+import geo.store.halfedge.Vertex;
+import geo.voronoi.ScoreLedger;
+import geo.voronoi.VoronoiDiagram;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * An immutable view of the playing board after a successful move, which can be read from any thread.
+ *
+ * The snapshot only refers to the parts of the triangulation that never change after creation: the corner points,
+ * circum circles and original edges of the faces. The points and faces are views on structures that are shared with
+ * the other snapshots, so making a snapshot does not copy them. The legality of the edges depends on the neighbouring
+ * faces, so it is determined from the faces of the snapshot the first time it is asked for. The Voronoi diagram is
+ * never changed after it has been constructed.
+ */
+public final class GameSnapshot {
+    // The version of the snapshot, which is increased with every published change to the board.
+    private final long version;
+
+    // The points put down by the red and blue players, and the union of both.
+    private final List<Vertex<TriangleFace>> redPoints;
+    private final List<Vertex<TriangleFace>> bluePoints;
+    private final List<Vertex<TriangleFace>> points;
+
+    // The faces of the Delaunay triangulation, including the outer face.
+    private final Collection<TriangleFace> faces;
+
+    // The edges of the triangulation that are illegal in the snapshot, or null if they have not been determined yet.
+    private volatile Set<Edge<TriangleFace>> illegalEdges;
+
+    // The Voronoi diagram of all points.
+    private final VoronoiDiagram voronoiDiagram;
+
+    // The areas owned by both players.
+    private final ScoreLedger.Score score;
+
+    /**
+     * Create a snapshot of the board. The collections should not change afterwards, which the shared structures of
+     * the game state guarantee for the views they publish.
+     *
+     * @param version The version of the snapshot.
+     * @param redPoints The points put down by the red player.
+     * @param bluePoints The points put down by the blue player.
+     * @param faces The faces of the triangulation of all points, including the outer face.
+     * @param voronoiDiagram The Voronoi diagram of all points.
+     * @param score The areas owned by both players.
+     */
+    GameSnapshot(long version, List<Vertex<TriangleFace>> redPoints, List<Vertex<TriangleFace>> bluePoints,
+                 Collection<TriangleFace> faces, VoronoiDiagram voronoiDiagram, ScoreLedger.Score score) {
+        this.version = version;
+        this.score = score;
+        this.redPoints = redPoints;
+        this.bluePoints = bluePoints;
+        this.faces = faces;
+        this.voronoiDiagram = voronoiDiagram;
+
+        // The red points come first, followed by the blue points.
+        this.points = new Concatenation<>(redPoints, bluePoints);
+    }
+
+    /**
+     * Get the version of the snapshot. A snapshot with a higher version describes a more recent board.
+     *
+     * @return The amount of changes that were published before this snapshot, since the state was created.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the points put down by the red player.
+     *
+     * @return An unmodifiable list of the red points.
+     */
+    public List<Vertex<TriangleFace>> getRedPoints() {
+        return redPoints;
+    }
+
+    /**
+     * Get the points put down by the blue player.
+     *
+     * @return An unmodifiable list of the blue points.
+     */
+    public List<Vertex<TriangleFace>> getBluePoints() {
+        return bluePoints;
+    }
+
+    /**
+     * Get the points put down by both players.
+     *
+     * @return An unmodifiable list of the red points, followed by the blue points.
+     */
+    public List<Vertex<TriangleFace>> getPoints() {
+        return points;
+    }
+
+    /**
+     * Get the number of red points.
+     *
+     * @return The number of red points.
+     */
+    public int getNumberOfRedPoints() {
+        return redPoints.size();
+    }
+
+    /**
+     * Get the number of blue points.
+     *
+     * @return The number of blue points.
+     */
+    public int getNumberOfBluePoints() {
+        return bluePoints.size();
+    }
+
+    /**
+     * Get the faces of the triangulation. Use {@link TriangleFace#getOriginalEdges()} to visit the edges of a face,
+     * since the cycles around the faces may be changed by later moves.
+     *
+     * @return An unmodifiable collection of the faces, including the outer face.
+     */
+    public Collection<TriangleFace> getTriangulatedFaces() {
+        return faces;
+    }
+
+    /**
+     * Check whether the edge is illegal in the triangulation of the snapshot. The legality of all edges is determined
+     * on the first call, so this should only be used when the edges are needed, e.g. to draw the triangulation.
+     *
+     * @param edge One of the original edges of a face in the snapshot.
+     * @return Whether the edge is illegal. Edges related to symbolic vertices are never reported as illegal.
+     */
+    public boolean isIllegal(Edge<TriangleFace> edge) {
+        Set<Edge<TriangleFace>> illegalEdges = this.illegalEdges;
+        if(illegalEdges == null) {
+            // Two readers may both do the work, but they come to the same result.
+            illegalEdges = findIllegalEdges();
+            this.illegalEdges = illegalEdges;
+        }
+        return illegalEdges.contains(edge);
+    }
+
+    /**
+     * Find the illegal edges among the original edges of the faces in the snapshot. The neighbour of a face is taken
+     * from the snapshot as well, since the twin of an edge may have been given a new face by a later move.
+     *
+     * @return The edges of which the opposite corner of a neighbouring face is inside the circum circle of the face.
+     */
+    private Set<Edge<TriangleFace>> findIllegalEdges() {
+        // Find the face each of the edges belongs to in this snapshot.
+        Map<Edge<TriangleFace>, TriangleFace> incidentFaces = new IdentityHashMap<>();
+        for(TriangleFace face : faces) {
+            for(Edge<TriangleFace> edge : face.getOriginalEdges()) {
+                incidentFaces.put(edge, face);
+            }
+        }
+
+        Set<Edge<TriangleFace>> illegalEdges = Collections.newSetFromMap(new IdentityHashMap<>());
+        for(TriangleFace face : faces) {
+            List<Edge<TriangleFace>> edges = face.getOriginalEdges();
+            for(int i = 0; i < edges.size(); i++) {
+                Edge<TriangleFace> edge = edges.get(i);
+
+                // Edges that are related to symbolic vertices are never drawn, so skip them.
+                if(edge.origin instanceof Vertex.SymbolicVertex || edge.twin.origin instanceof Vertex.SymbolicVertex) {
+                    continue;
+                }
+
+                // Compare the corners opposite of the edge with the circum circle of the face on the other side.
+                TriangleFace neighbour = incidentFaces.get(edge.twin);
+                if(neighbour == null) continue;
+                Vertex<TriangleFace> corner = edges.get((i + edges.size() - 1) % edges.size()).origin;
+                if(face.circumCircleContains(opposite(neighbour, edge.twin)) || neighbour.circumCircleContains(corner)) {
+                    illegalEdges.add(edge);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(illegalEdges);
+    }
+
+    /**
+     * Find the corner of the face that is opposite of the given edge.
+     *
+     * @param face The face that has the edge as one of its original edges.
+     * @param edge The edge of the face.
+     * @return The origin of the edge that precedes the given edge around the face.
+     */
+    private static Vertex<TriangleFace> opposite(TriangleFace face, Edge<TriangleFace> edge) {
+        List<Edge<TriangleFace>> edges = face.getOriginalEdges();
+        int i = edges.indexOf(edge);
+        return edges.get((i + edges.size() - 1) % edges.size()).origin;
+    }
+
+    /**
+     * Get the Voronoi diagram of all points.
+     *
+     * @return The Voronoi diagram instance.
+     */
+    public VoronoiDiagram getVoronoiDiagram() {
+        return voronoiDiagram;
+    }
+
+    /**
+     * Get the areas owned by both players.
+     *
+     * @return The totals of the score ledger at the time the snapshot was made.
+     */
+    public ScoreLedger.Score getScore() {
+        return score;
+    }
+
+    /**
+     * A read only view of two lists, one after the other.
+     *
+     * @param <T> The type of the elements in the lists.
+     */
+    private static final class Concatenation<T> extends AbstractList<T> implements RandomAccess {
+        // The lists to concatenate.
+        private final List<T> first, second;
+
+        private Concatenation(List<T> first, List<T> second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public T get(int index) {
+            return index < first.size() ? first.get(index) : second.get(index - first.size());
+        }
+
+        @Override
+        public int size() {
+            return first.size() + second.size();
+        }
+    }
+}
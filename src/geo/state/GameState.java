@@ -4,10 +4,19 @@ import com.sun.xml.internal.ws.wsdl.writer.document.Fault;
 import geo.controller.GameController;
 import geo.delaunay.DelaunayMesh;
 import geo.delaunay.DelaunayTriangulator;
+import geo.delaunay.DivideAndConquerTriangulator;
+import geo.delaunay.FaceSearcher;
+import geo.delaunay.FaceWalker;
+import geo.delaunay.ParallelDivideAndConquerTriangulator;
 import geo.delaunay.TriangleFace;
 import geo.player.AbstractPlayer;
 import geo.store.halfedge.Vertex;
+import geo.store.math.Point2d;
+import geo.store.math.Rectangle2d;
+import geo.util.ConvexClipping;
 import geo.voronoi.VoronoiDiagram;
+import geo.voronoi.ScoreLedger;
+import geo.voronoi.VoronoiMaintainer;
 
 import java.awt.*;
 import java.util.*;
@@ -24,9 +33,9 @@ public class GameState {
     // The player that currently has the turn.
     private PlayerTurn currentPlayerTurn;
 
-    // The points put down by the blue and red players.
-    private final List<Vertex<TriangleFace>> bluePoints = new ArrayList<>();
-    private final List<Vertex<TriangleFace>> redPoints = new ArrayList<>();
+    // The points put down by the blue and red players, which are shared with the snapshots.
+    private final SharedList<Vertex<TriangleFace>> bluePoints = new SharedList<>();
+    private final SharedList<Vertex<TriangleFace>> redPoints = new SharedList<>();
 
     // The current turn number, based on the amount of turns the red player has had.
     private int currentTurn;
@@ -34,12 +43,36 @@ public class GameState {
     // The triangulator.
     private DelaunayTriangulator triangulator;
 
+    // The faces of the triangulation, which follow its changes and are shared with the snapshots.
+    private SharedFaceSet faces;
+
+    // Whether the triangulator uses the history DAG for point location, instead of walking over the mesh.
+    private boolean usesHistory;
+
+    // Boards with at least this many points do not keep a history DAG, but walk over the mesh to locate points.
+    private static final int LARGE_BOARD_SIZE = 1000;
+
     // The resulting voronoi diagram.
     private VoronoiDiagram voronoiDiagram;
 
+    // Keeps the Voronoi diagram up to date with the changes to the triangulation.
+    private VoronoiMaintainer voronoiMaintainer;
+
+    // Keeps track of the area owned by each of the players.
+    private final ScoreLedger scoreLedger = new ScoreLedger();
+
+    // The rectangle the Voronoi cells are clipped to, which follows the size of the board.
+    private volatile Rectangle2d clippingArea = ConvexClipping.getClippingArea(new Dimension());
+
     // The random instance used for shuffling.
     private Random random;
 
+    // The most recently published snapshot of the board, which is read without locking by the other threads.
+    private volatile GameSnapshot snapshot;
+
+    // The version of the most recently published snapshot.
+    private long version;
+
     public GameState() {
         // To initialize, we should use the reset function.
         reset();
@@ -60,7 +93,7 @@ public class GameState {
      * @param p The point to add to the state.
      * @return Whether the insertion of the point was successful or not.
      */
-    private FaultStatus addPoint(Point p) {
+    private synchronized FaultStatus addPoint(Point p) {
         // First, convert to our own vertex type.
         Vertex<TriangleFace> vertex = new Vertex<>(p.x, p.y, currentPlayerTurn);
 
@@ -68,13 +101,12 @@ public class GameState {
         if(checkPointExistence(vertex)) return FaultStatus.PointExists;
 
         // Blue is only allowed to have n-1 points.
-        if(currentPlayerTurn == PlayerTurn.BLUE && getNumberOfRedPoints() <= getNumberOfBluePoints() + 1) {
+        if(currentPlayerTurn == PlayerTurn.BLUE && redPoints.size() <= bluePoints.size() + 1) {
             return FaultStatus.TooManyPoints;
         }
 
-        // Get the list of points, and reconstruct the triangulation/Voronoi diagram.
-        List<Vertex<TriangleFace>> points = union(redPoints, bluePoints, Collections.singletonList(vertex));
-        if(!reconstruct(points)) return FaultStatus.Error;
+        // Insert the point into the existing triangulation, and update the Voronoi diagram.
+        if(!insert(Collections.singletonList(vertex))) return FaultStatus.Error;
 
         // Only after all previous insertions pass, add the point to the list of points.
         if(currentPlayerTurn == PlayerTurn.RED) {
@@ -83,6 +115,8 @@ public class GameState {
             bluePoints.add(vertex);
         }
 
+        // Make the move visible to the other threads.
+        publish();
         return FaultStatus.None;
     }
 
@@ -92,7 +126,7 @@ public class GameState {
      * @param points The points to add to the state.
      * @return Whether the insertion of all points was successful or not.
      */
-    private List<FaultStatus> addPoints(Point[] points) {
+    private synchronized List<FaultStatus> addPoints(Point[] points) {
         // The collection of fault codes we want to return...
         List<FaultStatus> status = new ArrayList<>();
 
@@ -104,17 +138,14 @@ public class GameState {
         if(vertices.size() != points.length) status.add(FaultStatus.PointExists);
 
         // Blue is only allowed to have n-1 points.
-        if(currentPlayerTurn == PlayerTurn.BLUE && getNumberOfRedPoints() <= getNumberOfBluePoints() + points.length) {
+        if(currentPlayerTurn == PlayerTurn.BLUE && redPoints.size() <= bluePoints.size() + points.length) {
             // We cannot place all points. take a subset and add those we can.
             status.add(FaultStatus.TooManyPoints);
-            vertices = vertices.subList(0, getNumberOfRedPoints() - getNumberOfBluePoints() - 1);
+            vertices = vertices.subList(0, redPoints.size() - bluePoints.size() - 1);
         }
 
-        // Get the list of points, and reconstruct the triangulation/Voronoi diagram.
-        List<Vertex<TriangleFace>> points2 = union(redPoints, bluePoints, vertices);
-
         // Add all the points, check if we passed or failed. If nothing went wrong, add all points to the list of points.
-        if(reconstruct(points2)) {
+        if(insert(vertices)) {
             // Only after all previous insertions pass, add the point to the list of points.
             for(Vertex<TriangleFace> vertex : vertices) {
                 if(currentPlayerTurn == PlayerTurn.RED) {
@@ -128,6 +159,9 @@ public class GameState {
             status.add(FaultStatus.Error);
         }
 
+        // Make the moves visible to the other threads. A failed insertion may have rebuilt the triangulation.
+        publish();
+
         // Now, return None if status is empty, status otherwise.
         return status.isEmpty() ? Collections.singletonList(FaultStatus.None) : status;
     }
@@ -138,18 +172,55 @@ public class GameState {
      * @param p The point to remove.
      * @return Whether the point was removed successfully or not.
      */
-    private boolean removePoint(Point p) {
+    private synchronized boolean removePoint(Point p) {
         // First, convert to our own vertex type.
         Vertex<TriangleFace> vertex = new Vertex<>(p.x, p.y, currentPlayerTurn);
 
-        // Remove the vertex, check if we removed any by checking the return value.
-        boolean hasMatch = (currentPlayerTurn == PlayerTurn.RED ? redPoints : bluePoints).removeIf(v -> v.equals(vertex));
+        // Find the points of the current player that match the vertex.
+        List<Vertex<TriangleFace>> points = currentPlayerTurn == PlayerTurn.RED ? redPoints : bluePoints;
+        List<Vertex<TriangleFace>> matches = points.stream().filter(v -> v.equals(vertex)).collect(Collectors.toList());
 
-        // If we succeeded in removing, reconstruct. Otherwise return false.
-        if(hasMatch) {
+        // If we found any, remove them from the triangulation and update the Voronoi diagram. Otherwise return false.
+        if(!matches.isEmpty()) {
+            points.removeIf(v -> v.equals(vertex));
+            matches.forEach(triangulator::remove);
+            voronoiDiagram = voronoiMaintainer.update(clippingArea);
+            publish();
+        }
+        return !matches.isEmpty();
+    }
+
+    /**
+     * Insert the given points into the current triangulation, and update the Voronoi diagram.
+     * When the insertion fails, the triangulation is restored using the points that are already part of the state.
+     *
+     * @param vertices The new points that should be added to the triangulation.
+     * @return Whether the operation was successful or not.
+     */
+    private boolean insert(List<Vertex<TriangleFace>> vertices) {
+        // When the board becomes large, we switch to a triangulation without history by rebuilding it once.
+        if(usesHistory && redPoints.size() + bluePoints.size() + vertices.size() >= LARGE_BOARD_SIZE) {
+            if(reconstruct(union(redPoints, bluePoints, vertices))) return true;
+
+            // Restore the triangulation using the points we know to be valid.
             reconstruct(union(redPoints, bluePoints));
+            return false;
         }
-        return hasMatch;
+
+        try {
+            // The triangulation persists over the whole game, so we only have to insert the new points.
+            triangulator.insertAll(vertices, random);
+        } catch (DelaunayMesh.EdgeNotFoundException | DelaunayMesh.PointInsertedInOuterFaceException e) {
+            e.printStackTrace();
+
+            // Some of the points might have been inserted already, so rebuild using the points we know to be valid.
+            reconstruct(union(redPoints, bluePoints));
+            return false;
+        }
+
+        // Update the faces of the voronoi diagram that have changed.
+        voronoiDiagram = voronoiMaintainer.update(clippingArea);
+        return true;
     }
 
     /**
@@ -159,27 +230,78 @@ public class GameState {
      * @return Whether the operation was successful or not.
      */
     private boolean reconstruct(List<Vertex<TriangleFace>> points) {
-        // We have to enforce randomized incremental construction for the Delaunay triangulation...
-        triangulator = new DelaunayTriangulator();
-
-        // The list of all points, shuffled straight after.
-        Collections.shuffle(points, random);
-
-        // Insert all already known points, and the new point, in random order.
-        for(Vertex<TriangleFace> point : points) {
-            try {
-                triangulator.insert(point);
-            } catch (DelaunayMesh.EdgeNotFoundException | DelaunayMesh.PointInsertedInOuterFaceException e) {
-                e.printStackTrace();
-                return false;
-            }
+        // We start over with an empty triangulation.
+        triangulator = createTriangulator(points.size());
+
+        // Insert all the points, in random order.
+        try {
+            triangulator.insertAll(points, random);
+        } catch (DelaunayMesh.EdgeNotFoundException | DelaunayMesh.PointInsertedInOuterFaceException e) {
+            e.printStackTrace();
+            return false;
         }
 
         // Create the voronoi diagram.
-        voronoiDiagram = new VoronoiDiagram(points);
+        voronoiDiagram = voronoiMaintainer.update(clippingArea);
         return true;
     }
 
+    /**
+     * Create an empty triangulator, of which the point location structure depends on the size of the board.
+     * The first batch of points is triangulated with the divide and conquer algorithm, which runs on all cores for
+     * large boards. A new Voronoi maintainer and face set are registered to follow the changes to the triangulation.
+     *
+     * @param size The amount of points that will be inserted into the triangulator.
+     * @return A triangulator that uses the history DAG for small boards, and a walk over the mesh for large boards.
+     */
+    private DelaunayTriangulator createTriangulator(int size) {
+        usesHistory = size < LARGE_BOARD_SIZE;
+        DelaunayTriangulator triangulator;
+        if(usesHistory) {
+            triangulator = new DelaunayTriangulator(new FaceSearcher(), new DivideAndConquerTriangulator());
+        } else {
+            triangulator = new DelaunayTriangulator(new FaceWalker(), new ParallelDivideAndConquerTriangulator());
+        }
+
+        voronoiMaintainer = new VoronoiMaintainer(scoreLedger);
+        triangulator.addMeshListener(voronoiMaintainer);
+        faces = new SharedFaceSet(triangulator);
+        return triangulator;
+    }
+
+    /**
+     * Publish a snapshot of the current points, triangulation and Voronoi diagram.
+     * This should be called by the writing thread after every change to the board, while holding the lock.
+     * Nothing is copied, since the points and faces are shared with the snapshot.
+     */
+    private void publish() {
+        // In debug mode, check the Voronoi diagram against the points that are actually on the board.
+        if(ScoreLedger.DEBUG) voronoiMaintainer.verify(union(redPoints, bluePoints));
+
+        snapshot = new GameSnapshot(++version, redPoints.publish(), bluePoints.publish(), faces.publish(),
+                voronoiDiagram, scoreLedger.getScore());
+    }
+
+    /**
+     * Set the size of the board, to which the Voronoi diagram is clipped. This does not block, so it can be called
+     * while the board is being resized. The Voronoi diagram follows the new size after the next change to the board.
+     *
+     * @param size The dimensions of the board.
+     */
+    public void setBoardSize(Dimension size) {
+        clippingArea = ConvexClipping.getClippingArea(size);
+    }
+
+    /**
+     * Get the most recently published snapshot of the board. The snapshot never changes, and retrieving it never
+     * blocks, so readers on other threads should take a single snapshot and do all their reads on it.
+     *
+     * @return The snapshot of the board after the most recent successful move.
+     */
+    public GameSnapshot getSnapshot() {
+        return snapshot;
+    }
+
     /**
      * Take the union of two lists.
      *
@@ -201,9 +323,26 @@ public class GameState {
      * @param vertex The vertex we want to check the existence of.
      * @return Whether there exists any point in the red or blue sets that is equal to the given point.
      */
-    public boolean checkPointExistence(Vertex<TriangleFace> vertex) {
-        return redPoints.stream().anyMatch(v -> v.equals(vertex))
-                || bluePoints.stream().anyMatch(v -> v.equals(vertex));
+    public synchronized boolean checkPointExistence(Vertex<TriangleFace> vertex) {
+        // Points are equal when they are close, so it suffices to compare with the nearest point.
+        Vertex<TriangleFace> nearest = triangulator.getProximitySearch().findNearest(vertex);
+        return nearest != null && nearest.equals(vertex);
+    }
+
+    /**
+     * Find the points on the board that are nearest to the given point. Since the current triangulation is searched,
+     * this waits for a move that is being made to finish. The search is only done when the board is still the one
+     * described by the given snapshot, such that the result can be combined with what was read from the snapshot.
+     *
+     * @param snapshot The snapshot the caller has read the rest of the board from.
+     * @param p The point to search around.
+     * @param k The amount of points to find.
+     * @return The k points of both players that are closest to p in order of distance, or all points if there are
+     *         fewer than k. Null if the board has changed since the snapshot was published.
+     */
+    public synchronized List<Vertex<TriangleFace>> findNearestPoints(GameSnapshot snapshot, Point2d p, int k) {
+        if(snapshot.getVersion() != version) return null;
+        return triangulator.getProximitySearch().findNearest(p, k);
     }
 
     /**
@@ -248,54 +387,54 @@ public class GameState {
     }
 
     /**
-     * Return an immutable list containing the blue points.
+     * Return an immutable list containing the blue points of the most recent snapshot.
      *
      * @return The blue points list as an immutable collection.
      */
     public List<Vertex<TriangleFace>> getBluePoints() {
-        return Collections.unmodifiableList(bluePoints);
+        return snapshot.getBluePoints();
     }
 
     /**
-     * Get the number of blue points.
+     * Get the number of blue points in the most recent snapshot.
      *
      * @return The number of blue points.
      */
     public int getNumberOfBluePoints() {
-        return bluePoints.size();
+        return snapshot.getNumberOfBluePoints();
     }
 
     /**
-     * Return an immutable list containing the red points.
+     * Return an immutable list containing the red points of the most recent snapshot.
      *
      * @return The red points list as an immutable collection.
      */
     public List<Vertex<TriangleFace>> getRedPoints() {
-        return Collections.unmodifiableList(redPoints);
+        return snapshot.getRedPoints();
     }
 
     /**
-     * Get the number of red points.
+     * Get the number of red points in the most recent snapshot.
      *
      * @return The number of red points.
      */
     public int getNumberOfRedPoints() {
-        return redPoints.size();
+        return snapshot.getNumberOfRedPoints();
     }
 
     /**
-     * Return a list containing all points.
+     * Return an immutable list containing all points of the most recent snapshot.
      *
      * @return The points list.
      */
     public List<Vertex<TriangleFace>> getPoints() {
-        return union(redPoints, bluePoints);
+        return snapshot.getPoints();
     }
 
     /**
      * Reset the game state.
      */
-    private void reset() {
+    private synchronized void reset() {
         // Reset the turn system.
         currentPlayerTurn = PlayerTurn.RED;
         currentTurn = 0;
@@ -304,10 +443,13 @@ public class GameState {
         bluePoints.clear();
         redPoints.clear();
 
-        // Set a triangulator and voronoi diagram, to avoid null pointers...
-        triangulator = new DelaunayTriangulator();
-        voronoiDiagram = new VoronoiDiagram(new ArrayList<>());
+        // Set a triangulator and voronoi diagram, to avoid null pointers. The update commits the empty score.
+        triangulator = createTriangulator(0);
+        voronoiDiagram = voronoiMaintainer.update(clippingArea);
         random = new Random(8988178178129387065L);
+
+        // Readers should see the empty board.
+        publish();
     }
 
     /**
@@ -341,21 +483,21 @@ public class GameState {
     }
 
     /**
-     * Get all the visible faces.
+     * Get all the visible faces of the most recent snapshot.
      *
      * @return The faces that are leaves of the DAG and the outer face.
      */
-    public Set<TriangleFace> getTriangulatedFaces() {
-        return triangulator.getTriangulatedFaces();
+    public Collection<TriangleFace> getTriangulatedFaces() {
+        return snapshot.getTriangulatedFaces();
     }
 
     /**
-     * Get the current Voronoi diagram.
+     * Get the Voronoi diagram of the most recent snapshot.
      *
      * @return The Voronoi diagram instance.
      */
     public VoronoiDiagram getVoronoiDiagram() {
-        return voronoiDiagram;
+        return snapshot.getVoronoiDiagram();
     }
 
     /**
@@ -0,0 +1,192 @@
+package geo.state;
+
+import geo.delaunay.DelaunayTriangulator;
+import geo.delaunay.MeshListener;
+import geo.delaunay.TriangleFace;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The faces of a triangulation, shared by all snapshots of the board and updated with the changes to the mesh.
+ *
+ * Faces are only ever appended to the backing arrays. A face that is removed from the triangulation stays in place,
+ * and is marked with the version in which it was removed, such that older snapshots still see it. The arrays are
+ * replaced by a compacted copy once most of the entries are removed, while older snapshots keep the original arrays.
+ * This way, publishing a snapshot takes constant time, and keeping the set up to date takes time proportional to the
+ * amount of faces that changed.
+ */
+final class SharedFaceSet implements MeshListener {
+    // The version that is stored for faces that are still part of the triangulation.
+    private static final long LIVE = Long.MAX_VALUE;
+
+    // The faces that have been added, and the version in which each of them has been removed.
+    private TriangleFace[] faces = new TriangleFace[16];
+    private AtomicLongArray removed = new AtomicLongArray(16);
+
+    // The position of each face that is still part of the triangulation. Only used by the writing thread.
+    private final Map<TriangleFace, Integer> positions = new IdentityHashMap<>();
+
+    // The amount of entries in use, and the amount of those that are still part of the triangulation.
+    private int size, live;
+
+    // The outer face, which is not part of the faces reported by a rebuild, but should always be visible.
+    private final TriangleFace outerFace;
+
+    // The version of the view that the current changes will be published in.
+    private long version;
+
+    /**
+     * Create a set that contains the current faces of the triangulation, and follows its changes from now on.
+     *
+     * @param triangulator The triangulation to follow.
+     */
+    SharedFaceSet(DelaunayTriangulator triangulator) {
+        outerFace = triangulator.getOuterFace();
+        triangulator.getTriangulatedFaces().forEach(this::add);
+        triangulator.addMeshListener(this);
+    }
+
+    /**
+     * Replace the faces in the set.
+     *
+     * @param original The faces that have been removed from the triangulation.
+     * @param replacement The faces that have taken their place.
+     */
+    @Override
+    public void facesReplaced(List<TriangleFace> original, List<TriangleFace> replacement) {
+        original.forEach(this::remove);
+        replacement.forEach(this::add);
+    }
+
+    /**
+     * Start over with the faces of the rebuilt triangulation. Older snapshots keep the arrays they refer to.
+     *
+     * @param faces The faces of the new triangulation, excluding the outer face.
+     */
+    @Override
+    public void meshRebuilt(Collection<TriangleFace> faces) {
+        this.faces = new TriangleFace[Math.max(16, faces.size() + 1)];
+        removed = new AtomicLongArray(this.faces.length);
+        positions.clear();
+        size = live = 0;
+        add(outerFace);
+        faces.forEach(this::add);
+    }
+
+    /**
+     * Add a face to the set, which becomes visible in the next snapshot.
+     */
+    private void add(TriangleFace face) {
+        if(size == faces.length) {
+            // Drop the removed faces if they take up most of the space, and grow the arrays otherwise.
+            resize(live < size / 2 ? Math.max(16, 2 * live) : 2 * size);
+        }
+        faces[size] = face;
+        removed.set(size, LIVE);
+        positions.put(face, size++);
+        live++;
+    }
+
+    /**
+     * Remove a face from the set, such that it is no longer visible from the next snapshot onwards.
+     */
+    private void remove(TriangleFace face) {
+        Integer position = positions.remove(face);
+        if(position != null) {
+            removed.set(position, version);
+            live--;
+        }
+    }
+
+    /**
+     * Copy the faces that are still part of the triangulation to new arrays of the given capacity.
+     */
+    private void resize(int capacity) {
+        TriangleFace[] faces = new TriangleFace[capacity];
+        AtomicLongArray removed = new AtomicLongArray(capacity);
+        int size = 0;
+        for(int i = 0; i < this.size; i++) {
+            if(this.removed.get(i) != LIVE) continue;
+            faces[size] = this.faces[i];
+            removed.set(size, LIVE);
+            positions.put(faces[size], size++);
+        }
+        this.faces = faces;
+        this.removed = removed;
+        this.size = size;
+    }
+
+    /**
+     * Get a view of the faces as they are now, and start collecting the changes for the following version.
+     *
+     * @return An unmodifiable view of the faces that are currently part of the triangulation, which is not affected
+     *         by later changes.
+     */
+    Collection<TriangleFace> publish() {
+        Collection<TriangleFace> view = new View(faces, removed, size, live, version);
+        version++;
+        return view;
+    }
+
+    /**
+     * The faces that were part of the triangulation in a specific version.
+     */
+    private static final class View extends AbstractCollection<TriangleFace> {
+        // The arrays of the set at the time the view was made, and the amount of entries that were in use.
+        private final TriangleFace[] faces;
+        private final AtomicLongArray removed;
+        private final int size, live;
+
+        // The version of the view. Faces that were removed in this version or earlier are skipped.
+        private final long version;
+
+        private View(TriangleFace[] faces, AtomicLongArray removed, int size, int live, long version) {
+            this.faces = faces;
+            this.removed = removed;
+            this.size = size;
+            this.live = live;
+            this.version = version;
+        }
+
+        @Override
+        public Iterator<TriangleFace> iterator() {
+            return new Iterator<TriangleFace>() {
+                // The position of the next face to return.
+                private int i = skip(0);
+
+                @Override
+                public boolean hasNext() {
+                    return i < size;
+                }
+
+                @Override
+                public TriangleFace next() {
+                    if(i >= size) throw new NoSuchElementException();
+                    TriangleFace face = faces[i];
+                    i = skip(i + 1);
+                    return face;
+                }
+            };
+        }
+
+        /**
+         * Find the first position at or after the given position that holds a face that is part of the view.
+         */
+        private int skip(int i) {
+            while(i < size && removed.get(i) <= version) i++;
+            return i;
+        }
+
+        @Override
+        public int size() {
+            return live;
+        }
+    }
+}
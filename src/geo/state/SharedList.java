@@ -0,0 +1,100 @@
+package geo.state;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A list of which the prefixes can be shared with snapshots of the board, without copying.
+ *
+ * Adding an element only writes past the end of the list, such that the elements seen by earlier snapshots never
+ * change. Any other change, like removing an element, first copies the elements to a new array, which leaves the
+ * array of the earlier snapshots untouched. Since the players only ever add points during a game, publishing the
+ * points takes constant time.
+ *
+ * @param <T> The type of the elements in the list.
+ */
+final class SharedList<T> extends AbstractList<T> implements RandomAccess {
+    // The elements of the list, of which the first size entries are in use.
+    private Object[] elements = new Object[16];
+    private int size;
+
+    // Whether the array is shared with a snapshot, such that it should be copied before any change other than an add.
+    private boolean shared;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if(index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return (T) elements[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void add(int index, T element) {
+        if(index < 0 || index > size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        if(index < size) unshare();
+        if(size == elements.length) {
+            elements = Arrays.copyOf(elements, 2 * size);
+            shared = false;
+        }
+
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = element;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public T remove(int index) {
+        T element = get(index);
+        unshare();
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        elements[--size] = null;
+        modCount++;
+        return element;
+    }
+
+    @Override
+    public T set(int index, T element) {
+        T previous = get(index);
+        unshare();
+        elements[index] = element;
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        elements = new Object[16];
+        size = 0;
+        shared = false;
+        modCount++;
+    }
+
+    /**
+     * Make sure that the array is no longer shared with any snapshot, by copying it if needed.
+     */
+    private void unshare() {
+        if(shared) {
+            elements = Arrays.copyOf(elements, elements.length);
+            shared = false;
+        }
+    }
+
+    /**
+     * Get a view of the list as it is now.
+     *
+     * @return An unmodifiable list that is not affected by later changes to this list.
+     */
+    @SuppressWarnings("unchecked")
+    List<T> publish() {
+        shared = true;
+        return Collections.unmodifiableList((List<T>) Arrays.asList(elements).subList(0, size));
+    }
+}
@@ -3,6 +3,7 @@ package geo.store.graph;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A graph structure representing nodes in a DAG.
@@ -16,7 +17,7 @@ public class Node<T> {
     public final List<Node<T>> children = new ArrayList<>();
 
     // We give each node an id, such that we can easily check for already visited conditions.
-    private static int counter = 0;
+    private static final AtomicInteger counter = new AtomicInteger();
     private final int id;
 
     /**
@@ -28,7 +29,7 @@ public class Node<T> {
         this.value = value;
 
         // Assign a new id.
-        id = counter++;
+        id = counter.getAndIncrement();
     }
 
     /**
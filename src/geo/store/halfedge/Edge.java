@@ -1,10 +1,9 @@
 package geo.store.halfedge;
 
-import geo.store.gui.Line;
 import geo.store.math.Point2d;
-import geo.store.math.Vector2d;
+import geo.util.Predicates;
 
-import java.awt.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A half-edge in a half edge structure.
@@ -26,12 +25,9 @@ public class Edge<T> {
     private Edge<T> previous;
 
     // Give each edge an id, such that we can reliably delete and track it.
-    private static int counter = 0;
+    private static final AtomicInteger counter = new AtomicInteger();
     public final int id;
 
-    // The shape that we can drawPoints in the gui.
-    private final Line shape;
-
     /**
      * Create a half-edge pair originating from the given vertex.
      *
@@ -43,16 +39,13 @@ public class Edge<T> {
         this.origin = origin;
 
         // Give an unique id.
-        id = counter++;
+        id = counter.getAndIncrement();
 
         // Set the twin of the edge.
         this.twin = new Edge<>(target, origin, this);
 
         // Ensure that at least one incident edge is set for the vertex.
         origin.incidentEdge = this;
-
-        // Create a shape we can drawPoints for this structure.
-        shape = new Line(origin, origin.interpolate(target, 0.5d));
     }
 
     /**
@@ -67,16 +60,13 @@ public class Edge<T> {
         this.origin = origin;
 
         // Give an unique id.
-        id = counter++;
+        id = counter.getAndIncrement();
 
         // Set the twin of the edge.
         this.twin = twin;
 
         // Ensure that at least one incident edge is set for the vertex.
         origin.incidentEdge = this;
-
-        // Create a shape we can drawPoints for this structure.
-        shape = new Line(origin, origin.interpolate(target, 0.5d));
     }
 
     /**
@@ -93,37 +83,27 @@ public class Edge<T> {
      * Check if the given point is on this edge.
      *
      * @param p The point we want to check the existence of on the line.
-     * @return True if the point is on the line, otherwise false.
+     * @return True if the point is exactly on the line segment, otherwise false.
      */
     public boolean isPointOnEdge(Point2d p) {
-//        if(p.y == origin.y && p.y == twin.origin.y || p.x == origin.x && p.x == twin.origin.x) {
-//            return true;
-//        }
-
-        // Check if the sum of the lengths of a -> b + b -> c == a -> c.
-        return almostEqual(this.origin.distance(p) + p.distance(this.twin.origin),
-                this.origin.distance(this.twin.origin));
-    }
+        Point2d a = origin;
+        Point2d b = twin.origin;
 
-    /**
-     * Draw the object.
-     *
-     * @param g     The graphics object to use.
-     */
-    public void drawEdge(Graphics2D g) {
-        // Draw the shape stored in the object.
-        shape.draw(g);
+        // The point should be within the bounding box of the segment, and on the line through the segment.
+        return Math.min(a.x, b.x) <= p.x && p.x <= Math.max(a.x, b.x)
+                && Math.min(a.y, b.y) <= p.y && p.y <= Math.max(a.y, b.y)
+                && Predicates.orient2d(a, b, p) == 0;
     }
 
     /**
-     * Check whether the two numbers are almost equal, using the smallest distance between one double and the next.
+     * Check if the given point is strictly on the right side of this edge.
+     * For an edge that is part of a CCW cycle, this means that the point is on the outer side of its face.
      *
-     * @param a The left side of the equation.
-     * @param b The right side of the equation.
-     * @return True when the numbers are extremely close to one another.
+     * @param p The point we want to check the position of.
+     * @return True if the point is to the right of the line through the edge, false otherwise.
      */
-    private static boolean almostEqual(double a, double b){
-        return Math.abs(a-b) < 10e-5 /*Math.max(Math.ulp(a), Math.ulp(b))*/;
+    public boolean isPointRightOfEdge(Point2d p) {
+        return Predicates.orient2d(origin, twin.origin, p) < 0;
     }
 
     /**
@@ -164,15 +144,14 @@ public class Edge<T> {
         // Calculate the values we want to work with, which are the square length and dot product.
         Point2d p1 = origin;
         Point2d p2 = twin.origin;
-        double lengthSquared = (p2.x - p1.x) * (p2.x - p1.x) + (p2.y - p1.y) * (p2.y - p1.y);
+        double dx = p2.x - p1.x, dy = p2.y - p1.y;
+        double lengthSquared = dx * dx + dy * dy;
         if(lengthSquared == 0) return p1.distance(p);
 
         // Now, we have the line through p1 and p2: p1 + x * (p2 - p1), we want to find the projection of p onto this line.
         // This holds when x = [(p-p1) * (p2-p1)] / lengthSquared. Clamp x to the range 0-1, such that we cannot get out of the segment.
-        Vector2d v1 = new Vector2d(p1, p);
-        Vector2d v2 = new Vector2d(p1, p2);
-        double x = Math.max(0, Math.min(1, v1.dot(v2) / lengthSquared));
-        Point2d projection = p1.add(v2.scale(x));
-        return p.distance(projection);
+        double x = Math.max(0, Math.min(1, ((p.x - p1.x) * dx + (p.y - p1.y) * dy) / lengthSquared));
+        double px = p1.x + x * dx - p.x, py = p1.y + x * dy - p.y;
+        return Math.sqrt(px * px + py * py);
     }
 }
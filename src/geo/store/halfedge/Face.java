@@ -1,14 +1,11 @@
 package geo.store.halfedge;
 
 import geo.delaunay.TriangleFace;
-import geo.state.GameState;
-import geo.store.gui.Polygon;
-import geo.store.math.Point2d;
 
-import java.awt.*;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A face in a half edge structure, which not necessarily has to be a triangle.
@@ -18,12 +15,9 @@ public class Face implements Iterable<Edge<Face>> {
     public Edge<Face> outerComponent;
 
     // Give each edge an id, such that we can reliably delete and track it.
-    private static int counter = 0;
+    private static final AtomicInteger counter = new AtomicInteger();
     public final int id;
 
-    // The shape of this label.
-    private final Polygon shape;
-
     // The area of this face.
     private final double area;
 
@@ -37,7 +31,7 @@ public class Face implements Iterable<Edge<Face>> {
      */
     public Face(Vertex<TriangleFace> centerPoint, List<Edge<Face>> edges) {
         // Assign a new id.
-        id = counter++;
+        id = counter.getAndIncrement();
 
         // Set the center point.
         this.centerPoint = centerPoint;
@@ -51,9 +45,6 @@ public class Face implements Iterable<Edge<Face>> {
         // Finally, make a reference to one of the edges in the cycle.
         outerComponent = edges.get(0);
 
-        // Create the shapes.
-        shape = new Polygon("", edges.stream().map(e -> e.origin).toArray(Point2d[]::new));
-
         // Calculate the area of the face.
         this.area = calculateArea();
     }
@@ -102,19 +93,6 @@ public class Face implements Iterable<Edge<Face>> {
         return edges;
     }
 
-    /**
-     * Draw the shape.
-     *
-     * @param g The graphics object to draw in.
-     */
-    public void drawFace(Graphics2D g) {
-        // We draw the shape in a grey color, with alpha.
-        g.setColor(centerPoint.player == GameState.PlayerTurn.RED ?
-                new Color(255, 0, 0, 100) : new Color(0, 0, 255, 100));
-
-        shape.draw(g);
-    }
-
     /**
      * Iterate over all the edges that can be found in the next cycle.
      *
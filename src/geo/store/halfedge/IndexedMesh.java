@@ -0,0 +1,282 @@
+package geo.store.halfedge;
+
+import geo.state.GameState;
+import geo.util.Predicates;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A compact half edge structure of a triangulation, in which vertices, half-edges and faces are indices into parallel
+ * arrays of primitives. A mesh of this kind takes a fraction of the memory of the object based structure, and walks
+ * over the mesh only touch a few arrays instead of chasing references between objects.
+ *
+ * Every triangle f owns the half-edges 3f, 3f + 1 and 3f + 2 in CCW order. The half-edges on the outside of the
+ * convex hull follow after those of the triangles, and have {@link #NONE} as their face. They are linked into a cycle
+ * around the hull, such that every half-edge has a twin and a next half-edge, and the walks around a vertex visit the
+ * same half-edges as {@link Vertex#edges()} does in the object based structure.
+ */
+public class IndexedMesh {
+    // The value used for missing references, e.g. the face on the outside of the convex hull.
+    public static final int NONE = -1;
+
+    // The coordinates of the vertices, and the index of the player that owns each vertex, or NONE.
+    private final double[] x, y;
+    private final byte[] owner;
+
+    // One of the half-edges originating from each vertex, or NONE for vertices that are not part of the mesh.
+    private final int[] vertexEdge;
+
+    // The vertex each half-edge originates from, its twin, the next half-edge in its cycle and the face to its left.
+    private final int[] origin, twin, next, face;
+
+    // The amount of half-edges and faces in the mesh.
+    private final int edgeCount, faceCount;
+
+    /**
+     * Create a mesh from the arrays of a triangulation. The coordinate and owner arrays are kept by the mesh, and
+     * should not be changed afterwards.
+     *
+     * @param x The x-coordinates of the vertices.
+     * @param y The y-coordinates of the vertices.
+     * @param owner The index of the player that owns each vertex, or NONE.
+     * @param triangles The corners of the triangles, three per triangle in CCW order.
+     * @param halfedges For every half-edge of a triangle, the index of its twin, or NONE if it is on the convex hull.
+     * @param size The amount of half-edges in use in the triangle arrays, which is three times the amount of triangles.
+     * @return The mesh, of which the faces are the triangles in the given order.
+     */
+    public static IndexedMesh fromTriangles(double[] x, double[] y, byte[] owner, int[] triangles, int[] halfedges,
+                                            int size) {
+        // Every half-edge on the convex hull gets a twin on the outside.
+        int hull = 0;
+        for(int h = 0; h < size; h++) {
+            if(halfedges[h] == NONE) hull++;
+        }
+        return new IndexedMesh(x, y, owner, triangles, halfedges, size, hull);
+    }
+
+    /**
+     * Create a mesh from the arrays of a triangulation.
+     */
+    private IndexedMesh(double[] x, double[] y, byte[] owner, int[] triangles, int[] halfedges, int size, int hull) {
+        this.x = x;
+        this.y = y;
+        this.owner = owner;
+        edgeCount = size + hull;
+        faceCount = size / 3;
+        vertexEdge = new int[x.length];
+        origin = new int[edgeCount];
+        twin = new int[edgeCount];
+        next = new int[edgeCount];
+        face = new int[edgeCount];
+        Arrays.fill(vertexEdge, NONE);
+
+        // The half-edges of the triangles keep their indices.
+        for(int h = 0; h < size; h++) {
+            origin[h] = triangles[h];
+            twin[h] = halfedges[h];
+            next[h] = h % 3 == 2 ? h - 2 : h + 1;
+            face[h] = h / 3;
+            vertexEdge[origin[h]] = h;
+        }
+
+        // Give the hull half-edges a twin on the outside, and remember the outer half-edge leaving each hull vertex.
+        int[] outgoing = new int[x.length];
+        int o = size;
+        for(int h = 0; h < size; h++) {
+            if(halfedges[h] != NONE) continue;
+            origin[o] = triangles[next[h]];
+            twin[o] = h;
+            twin[h] = o;
+            face[o] = NONE;
+            outgoing[origin[o]] = o++;
+        }
+
+        // The outer half-edges run around the hull in CW order, from the target of each one to the next.
+        for(o = size; o < edgeCount; o++) {
+            next[o] = outgoing[origin[twin[o]]];
+        }
+    }
+
+    /**
+     * Get the x-coordinate of the vertex.
+     */
+    public double x(int v) {
+        return x[v];
+    }
+
+    /**
+     * Get the y-coordinate of the vertex.
+     */
+    public double y(int v) {
+        return y[v];
+    }
+
+    /**
+     * Get the player that owns the vertex.
+     *
+     * @return The player, or null if the vertex has no owner.
+     */
+    public GameState.PlayerTurn owner(int v) {
+        return owner[v] == NONE ? null : GameState.PlayerTurn.values()[owner[v]];
+    }
+
+    /**
+     * Get one of the half-edges originating from the vertex.
+     *
+     * @return The half-edge, or NONE if the vertex is not part of the mesh, e.g. because it coincides with another.
+     */
+    public int incidentEdge(int v) {
+        return vertexEdge[v];
+    }
+
+    /**
+     * Get the vertex the half-edge originates from.
+     */
+    public int origin(int h) {
+        return origin[h];
+    }
+
+    /**
+     * Get the vertex the half-edge points to.
+     */
+    public int target(int h) {
+        return origin[twin[h]];
+    }
+
+    /**
+     * Get the half-edge that moves in the opposite direction.
+     */
+    public int twin(int h) {
+        return twin[h];
+    }
+
+    /**
+     * Get the follow up half-edge in the cycle around the incident face.
+     */
+    public int next(int h) {
+        return next[h];
+    }
+
+    /**
+     * Get the previous half-edge in the cycle around the incident face.
+     */
+    public int previous(int h) {
+        if(face[h] != NONE) return h % 3 == 0 ? h + 2 : h - 1;
+        int current = h;
+        while(next[current] != h) {
+            current = next[current];
+        }
+        return current;
+    }
+
+    /**
+     * Get the face to the left of the half-edge.
+     *
+     * @return The index of the face, or NONE for the outer face.
+     */
+    public int face(int h) {
+        return face[h];
+    }
+
+    /**
+     * Get one of the half-edges in the cycle around the face.
+     */
+    public int outerComponent(int f) {
+        return 3 * f;
+    }
+
+    /**
+     * Visit the half-edges originating from the vertex, in the same order as {@link Vertex#edges()}.
+     *
+     * @param v The vertex to walk around, which should be part of the mesh.
+     * @param action The action to perform for every half-edge.
+     */
+    public void forEachEdgeAroundVertex(int v, IntConsumer action) {
+        int start = vertexEdge[v];
+        int current = start;
+        do {
+            action.accept(current);
+            current = next[twin[current]];
+        } while(current != start);
+    }
+
+    /**
+     * Get the half-edges originating from the vertex.
+     *
+     * @param v The vertex to walk around, which should be part of the mesh.
+     * @return The half-edges in the same order as {@link Vertex#edges()}.
+     */
+    public int[] edgesAroundVertex(int v) {
+        int[] edges = new int[6];
+        int size = 0;
+        int start = vertexEdge[v];
+        int current = start;
+        do {
+            if(size == edges.length) edges = Arrays.copyOf(edges, 2 * size);
+            edges[size++] = current;
+            current = next[twin[current]];
+        } while(current != start);
+        return Arrays.copyOf(edges, size);
+    }
+
+    /**
+     * Get the half-edges in the cycle around the face, in the same order as the edges of the face.
+     *
+     * @param f The face to walk around.
+     * @return The three half-edges in CCW order, starting with the outer component of the face.
+     */
+    public int[] edgesAroundFace(int f) {
+        return new int[]{3 * f, 3 * f + 1, 3 * f + 2};
+    }
+
+    /**
+     * Find the face that contains the given point, by walking from the start face towards the point. In every face,
+     * the walk leaves through the first edge that has the point on its outer side. The edge that is tested first
+     * rotates from face to face, which keeps the walk from cycling.
+     *
+     * @param px The x-coordinate of the point.
+     * @param py The y-coordinate of the point.
+     * @param start The face to start the walk in.
+     * @return The face that contains the point, or NONE if the point is outside of the convex hull.
+     */
+    public int locate(double px, double py, int start) {
+        int f = start;
+        int rotation = 0;
+        walk:
+        while(true) {
+            for(int i = 0; i < 3; i++) {
+                int h = 3 * f + (i + rotation) % 3;
+                int a = origin[h], b = origin[next[h]];
+                if(Predicates.orient2d(x[a], y[a], x[b], y[b], px, py) < 0) {
+                    f = face[twin[h]];
+                    if(f == NONE) return NONE;
+                    rotation = rotation == 2 ? 0 : rotation + 1;
+                    continue walk;
+                }
+            }
+            return f;
+        }
+    }
+
+    /**
+     * Get the amount of vertices in the mesh, including vertices that were skipped because they coincide with another.
+     */
+    public int vertexCount() {
+        return x.length;
+    }
+
+    /**
+     * Get the amount of half-edges in the mesh, including those on the outside of the convex hull.
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Get the amount of faces in the mesh, excluding the outer face.
+     */
+    public int faceCount() {
+        return faceCount;
+    }
+}
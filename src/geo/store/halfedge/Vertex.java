@@ -1,14 +1,12 @@
 package geo.store.halfedge;
 
 import geo.state.GameState;
-import geo.store.gui.Label;
-import geo.store.gui.Point;
 import geo.store.math.Point2d;
 
-import java.awt.*;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A vertex in a half edge structure, which is an extension of a Point2d.
@@ -18,20 +16,14 @@ public class Vertex<T> extends Point2d implements Iterable<Edge<T>> {
     public Edge<T> incidentEdge;
 
     // Since we don't want to add the same point twice, we will use an unique id based system for duplicate detection.
-    private static int counter = 0;
+    private static final AtomicInteger counter = new AtomicInteger();
     public final int id;
 
-    // The label that we can drawPoints in the gui.
-    private final Label label;
-
     // Which player this vertex belongs to.
     public final GameState.PlayerTurn player;
 
-    // The label of the vertex.
-    private final Point shape;
-
-    // The static radius of a vertex.
-    private final static int radius = 10;
+    // The static radius of a vertex, within which no other vertex can be placed.
+    public final static int radius = 10;
 
     /**
      * Create a vertex at the given coordinates.
@@ -47,11 +39,7 @@ public class Vertex<T> extends Point2d implements Iterable<Edge<T>> {
         this.player = player;
 
         // Assign a new id.
-        id = counter++;
-
-        // Create a drawable figures.
-        label = new Label(x, y, "v" + id);
-        shape = new Point(x, y, player == GameState.PlayerTurn.RED ? Color.RED : Color.BLUE, radius);
+        id = counter.getAndIncrement();
     }
 
     /**
@@ -125,24 +113,6 @@ public class Vertex<T> extends Point2d implements Iterable<Edge<T>> {
         }
     }
 
-    /**
-     * Draw the shape.
-     *
-     * @param g The graphics object to draw in.
-     */
-    public void drawPoint(Graphics2D g) {
-        shape.draw(g);
-    }
-
-    /**
-     * Draw the shape.
-     *
-     * @param g The graphics object to draw in.
-     */
-    public void drawLabel(Graphics2D g) {
-        label.draw(g);
-    }
-
     /**
      * Two points are equal when the distance between the point centers is less than the radius of the points.
      *
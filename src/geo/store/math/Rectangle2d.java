@@ -0,0 +1,110 @@
+package geo.store.math;
+
+import java.util.Locale;
+
+/**
+ * Data structure representing an axis aligned rectangle, which never changes.
+ */
+public final class Rectangle2d {
+    // The smallest and largest coordinates within the rectangle.
+    public final double minX, minY, maxX, maxY;
+
+    /**
+     * Create a rectangle, given its smallest and largest coordinates.
+     *
+     * @param minX The smallest x-coordinate within the rectangle.
+     * @param minY The smallest y-coordinate within the rectangle.
+     * @param maxX The largest x-coordinate within the rectangle.
+     * @param maxY The largest y-coordinate within the rectangle.
+     */
+    public Rectangle2d(double minX, double minY, double maxX, double maxY) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    /**
+     * Get the width of the rectangle.
+     *
+     * @return The difference between the largest and smallest x-coordinate.
+     */
+    public double getWidth() {
+        return maxX - minX;
+    }
+
+    /**
+     * Get the height of the rectangle.
+     *
+     * @return The difference between the largest and smallest y-coordinate.
+     */
+    public double getHeight() {
+        return maxY - minY;
+    }
+
+    /**
+     * Check whether the given box is completely inside of this rectangle, including its boundary.
+     *
+     * @param minX The smallest x-coordinate of the box.
+     * @param minY The smallest y-coordinate of the box.
+     * @param maxX The largest x-coordinate of the box.
+     * @param maxY The largest y-coordinate of the box.
+     * @return True if the box is inside the rectangle, false otherwise.
+     */
+    public boolean contains(double minX, double minY, double maxX, double maxY) {
+        return this.minX <= minX && maxX <= this.maxX && this.minY <= minY && maxY <= this.maxY;
+    }
+
+    /**
+     * Check whether the given box overlaps with this rectangle, including its boundary.
+     *
+     * @param minX The smallest x-coordinate of the box.
+     * @param minY The smallest y-coordinate of the box.
+     * @param maxX The largest x-coordinate of the box.
+     * @param maxY The largest y-coordinate of the box.
+     * @return True if the box and the rectangle have at least one point in common, false otherwise.
+     */
+    public boolean intersects(double minX, double minY, double maxX, double maxY) {
+        return this.minX <= maxX && minX <= this.maxX && this.minY <= maxY && minY <= this.maxY;
+    }
+
+    /**
+     * Two rectangles are equal when they have the same coordinates.
+     *
+     * @param obj The object we want to check equality for.
+     * @return True if the object is a rectangle with the same coordinates, false otherwise.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj) return true;
+        if(!(obj instanceof Rectangle2d)) return false;
+        Rectangle2d r = (Rectangle2d) obj;
+        return Double.compare(minX, r.minX) == 0 && Double.compare(minY, r.minY) == 0
+                && Double.compare(maxX, r.maxX) == 0 && Double.compare(maxY, r.maxY) == 0;
+    }
+
+    /**
+     * Create a hash based on the coordinates of the rectangle.
+     *
+     * @return A hash for the rectangle.
+     */
+    @Override
+    public int hashCode() {
+        int hash = Double.hashCode(minX);
+        hash = 31 * hash + Double.hashCode(minY);
+        hash = 31 * hash + Double.hashCode(maxX);
+        return 31 * hash + Double.hashCode(maxY);
+    }
+
+    /**
+     * Get the string representation of the rectangle.
+     *
+     * @return The smallest and the largest corner of the rectangle.
+     */
+    @Override
+    public String toString() {
+        return "[" + String.format(Locale.ROOT, "%.1f", minX) + "," + String.format(Locale.ROOT, "%.1f", minY)
+                + " - " + String.format(Locale.ROOT, "%.1f", maxX) + ","
+                + String.format(Locale.ROOT, "%.1f", maxY) + "]";
+    }
+}
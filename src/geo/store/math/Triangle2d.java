@@ -1,7 +1,6 @@
 package geo.store.math;
 
-import java.awt.*;
-import java.awt.geom.Path2D;
+import geo.util.Predicates;
 
 /**
  * Data structure representing a triangle.
@@ -17,9 +16,6 @@ public class Triangle2d {
     public final Point2d cc;
     public final double ccr;
 
-    // Create a 2d polygon to test contains.
-    private final Path2D shape;
-
     /**
      * Create a triangle, given the three corner points.
      *
@@ -28,11 +24,9 @@ public class Triangle2d {
      * @param p3 The third corner point of the triangle.
      */
     public Triangle2d(Point2d p1, Point2d p2, Point2d p3) {
-        // Make sure that the edges are in CCW order!
-        double sign = (p2.x - p1.x) * (p2.y + p1.y) + (p3.x - p2.x) * (p3.y + p2.y) + (p1.x - p3.x) * (p1.y + p3.y);
-
-        // If the sign is negative, we are in CW order and should thus swap two points.
-        if(sign < 0) {
+        // Make sure that the edges are in CCW order on the screen, of which the y-axis points downwards!
+        // If the points make a left turn with the y-axis pointing upwards, we should thus swap two points.
+        if(Predicates.orient2d(p1, p2, p3) > 0) {
             this.p1 = p1;
             this.p2 = p3;
             this.p3 = p2;
@@ -48,13 +42,6 @@ public class Triangle2d {
         // Find the circumcenter and radius of the circum circle.
         cc = getCircumCenter();
         ccr = cc.distance(p1);
-
-        // Create the shape.
-        shape = new Path2D.Double();
-        shape.moveTo(p1.x, p1.y);
-        shape.lineTo(p2.x, p2.y);
-        shape.lineTo(p3.x, p3.y);
-        shape.closePath();
     }
 
     /**
@@ -77,9 +64,10 @@ public class Triangle2d {
     /**
      * Check if the given point is contained in the circumcircle.
      * @param p The point we want to check the position of.
-     * @return True if the distance between the point and the circumcenter is smaller than the circumcircle radius.
+     * @return True if the point is strictly inside of the circumcircle, using an exact incircle test.
      */
     public boolean circumCircleContains(Point2d p) {
-        return cc.distance(p) < ccr;
+        // The corner points are in CW order with the y-axis pointing upwards, so we reverse them for the test.
+        return Predicates.inCircle(p1, p3, p2, p) > 0;
     }
 }
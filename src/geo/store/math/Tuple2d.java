@@ -84,7 +84,8 @@ public abstract class Tuple2d<T> {
      * @return The euclidean distance between this tuple and the tuple t.
      */
     public double distance(Tuple2d t) {
-        return Math.sqrt(Math.pow(this.x - t.x, 2) + Math.pow(this.y - t.y, 2));
+        double dx = this.x - t.x, dy = this.y - t.y;
+        return Math.sqrt(dx * dx + dy * dy);
     }
 
     /**
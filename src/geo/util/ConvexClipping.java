@@ -0,0 +1,205 @@
+package geo.util;
+
+import geo.store.math.Rectangle2d;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Clip convex polygons to a rectangle, such as the Voronoi cells to the board.
+ *
+ * The bounding box of the polygon is compared to the rectangle first, such that polygons inside of the rectangle are
+ * not clipped at all, and polygons that stick out are only clipped against the sides of the rectangle they cross.
+ * The corners are kept in buffers that are reused for every polygon, so an instance should only be used by a single
+ * thread at a time.
+ */
+public class ConvexClipping {
+    // The rectangle that polygons are clipped to.
+    private final Rectangle2d bounds;
+
+    // The buffers in which the corners of the polygon are kept while clipping.
+    private double[] xs = new double[16], ys = new double[16];
+    private double[] xt = new double[16], yt = new double[16];
+
+    // The amount of corners in the polygon.
+    private int size;
+
+    // The bounding box of the corners that have been added.
+    private double minX, minY, maxX, maxY;
+
+    /**
+     * Create a clipper for the given rectangle.
+     *
+     * @param bounds The rectangle that polygons are clipped to.
+     */
+    public ConvexClipping(Rectangle2d bounds) {
+        this.bounds = bounds;
+        clear();
+    }
+
+    /**
+     * Get the rectangle the Voronoi cells are clipped to, which is the board with a margin of one pixel around it.
+     *
+     * @param board The dimensions of the board.
+     * @return The rectangle to clip to.
+     */
+    public static Rectangle2d getClippingArea(Dimension board) {
+        return new Rectangle2d(-1, -1, board.width + 1, board.height + 1);
+    }
+
+    /**
+     * Get the rectangle that polygons are clipped to.
+     *
+     * @return The rectangle to clip to.
+     */
+    public Rectangle2d getBounds() {
+        return bounds;
+    }
+
+    /**
+     * Forget the current polygon, such that a new polygon can be added.
+     */
+    public void clear() {
+        size = 0;
+        minX = minY = Double.POSITIVE_INFINITY;
+        maxX = maxY = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Add the next corner of the polygon. The corners should be added in order.
+     *
+     * @param x The x-coordinate of the corner.
+     * @param y The y-coordinate of the corner.
+     */
+    public void add(double x, double y) {
+        if(size + 4 >= xs.length) {
+            // Keep room for the corners that are added by clipping.
+            xs = Arrays.copyOf(xs, 2 * xs.length);
+            ys = Arrays.copyOf(ys, 2 * ys.length);
+            xt = new double[xs.length];
+            yt = new double[ys.length];
+        }
+        xs[size] = x;
+        ys[size] = y;
+        size++;
+
+        // Keep track of the bounding box.
+        minX = Math.min(minX, x);
+        minY = Math.min(minY, y);
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
+    }
+
+    /**
+     * Clip the polygon to the rectangle. Afterwards, the corners of the clipped polygon can be read.
+     *
+     * @return The amount of corners of the clipped polygon.
+     */
+    public int clip() {
+        // Polygons inside of the rectangle stay the same, and polygons outside of it disappear.
+        if(bounds.contains(minX, minY, maxX, maxY)) return size;
+        if(!bounds.intersects(minX, minY, maxX, maxY)) return size = 0;
+
+        // Only clip against the sides that are crossed by the polygon.
+        if(minX < bounds.minX) clip(0, bounds.minX);
+        if(maxX > bounds.maxX) clip(1, bounds.maxX);
+        if(minY < bounds.minY) clip(2, bounds.minY);
+        if(maxY > bounds.maxY) clip(3, bounds.maxY);
+        return size;
+    }
+
+    /**
+     * Clip the polygon against a single side of the rectangle, using the Sutherland Hodgman algorithm.
+     *
+     * @param side The side to clip against: the left, right, bottom or top side.
+     * @param value The coordinate of the side.
+     */
+    private void clip(int side, double value) {
+        int count = 0;
+        for(int i = 0; i < size; i++) {
+            int j = i == 0 ? size - 1 : i - 1;
+            boolean inside = isInside(side, value, xs[i], ys[i]);
+
+            // Add the intersection with the side when the edge from the previous corner crosses it.
+            if(inside != isInside(side, value, xs[j], ys[j])) {
+                if(side < 2) {
+                    double t = (value - xs[j]) / (xs[i] - xs[j]);
+                    xt[count] = value;
+                    yt[count] = ys[j] + t * (ys[i] - ys[j]);
+                } else {
+                    double t = (value - ys[j]) / (ys[i] - ys[j]);
+                    xt[count] = xs[j] + t * (xs[i] - xs[j]);
+                    yt[count] = value;
+                }
+                count++;
+            }
+
+            // Keep the corners on the inside.
+            if(inside) {
+                xt[count] = xs[i];
+                yt[count] = ys[i];
+                count++;
+            }
+        }
+
+        // Swap the buffers, such that the result becomes the polygon.
+        double[] x = xs, y = ys;
+        xs = xt;
+        ys = yt;
+        xt = x;
+        yt = y;
+        size = count;
+    }
+
+    /**
+     * Check whether the given point is on the inner side of a side of the rectangle.
+     *
+     * @param side The side to check: the left, right, bottom or top side.
+     * @param value The coordinate of the side.
+     * @param x The x-coordinate of the point.
+     * @param y The y-coordinate of the point.
+     * @return True if the point is on the side or on the inner side of it, false otherwise.
+     */
+    private static boolean isInside(int side, double value, double x, double y) {
+        switch(side) {
+            case 0: return x >= value;
+            case 1: return x <= value;
+            case 2: return y >= value;
+            default: return y <= value;
+        }
+    }
+
+    /**
+     * Get the x-coordinate of a corner of the polygon.
+     *
+     * @param i The index of the corner.
+     * @return The x-coordinate.
+     */
+    public double getX(int i) {
+        return xs[i];
+    }
+
+    /**
+     * Get the y-coordinate of a corner of the polygon.
+     *
+     * @param i The index of the corner.
+     * @return The y-coordinate.
+     */
+    public double getY(int i) {
+        return ys[i];
+    }
+
+    /**
+     * Get the area of the polygon, calculated in the same way as the area of a face.
+     *
+     * @return The area of the polygon, which is positive for polygons in CCW order on the screen.
+     */
+    public double getArea() {
+        double doubleArea = 0;
+        for(int i = 0; i < size; i++) {
+            int j = i + 1 == size ? 0 : i + 1;
+            doubleArea += (ys[i] + ys[j]) * (xs[j] - xs[i]);
+        }
+        return doubleArea / 2;
+    }
+}
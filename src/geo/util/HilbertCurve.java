@@ -0,0 +1,84 @@
+package geo.util;
+
+import geo.store.math.Point2d;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sort points along a Hilbert curve, such that points that are consecutive in the order are close to each other.
+ */
+public class HilbertCurve {
+    // The amount of bits used per coordinate, i.e. the curve visits a grid of 2^16 by 2^16 cells.
+    private static final int ORDER = 16;
+
+    /**
+     * Sort the points in the given list along a Hilbert curve through the bounding box of the points.
+     *
+     * @param points The points we want to sort, which are sorted in place.
+     * @param <T> The type of the points.
+     */
+    public static <T extends Point2d> void sort(List<T> points) {
+        if(points.size() < 2) return;
+
+        // Find the bounding box of the points.
+        double xMin = Double.POSITIVE_INFINITY, yMin = Double.POSITIVE_INFINITY;
+        double xMax = Double.NEGATIVE_INFINITY, yMax = Double.NEGATIVE_INFINITY;
+        for(T p : points) {
+            xMin = Math.min(xMin, p.x);
+            yMin = Math.min(yMin, p.y);
+            xMax = Math.max(xMax, p.x);
+            yMax = Math.max(yMax, p.y);
+        }
+
+        // Scale the bounding box onto the grid of the curve.
+        double scale = ((1 << ORDER) - 1) / Math.max(Math.max(xMax - xMin, yMax - yMin), 1e-9);
+
+        // Pack the index on the curve and the position in the list into one key, such that we can sort primitives.
+        long[] keys = new long[points.size()];
+        for(int i = 0; i < keys.length; i++) {
+            T p = points.get(i);
+            long d = index((int) ((p.x - xMin) * scale), (int) ((p.y - yMin) * scale));
+            keys[i] = (d << 31) | i;
+        }
+        Arrays.sort(keys);
+
+        // Put the points in the sorted order.
+        List<T> sorted = new ArrayList<>(points.size());
+        for(long key : keys) {
+            sorted.add(points.get((int) (key & Integer.MAX_VALUE)));
+        }
+        for(int i = 0; i < sorted.size(); i++) {
+            points.set(i, sorted.get(i));
+        }
+    }
+
+    /**
+     * Find the position of the grid cell on the Hilbert curve.
+     *
+     * @param x The column of the grid cell.
+     * @param y The row of the grid cell.
+     * @return The distance along the curve at which the cell is visited.
+     */
+    public static long index(int x, int y) {
+        long d = 0;
+        for(int s = 1 << (ORDER - 1); s > 0; s >>= 1) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+
+            // Rotate the quadrant, such that the sub curve has the correct orientation.
+            if(ry == 0) {
+                if(rx == 1) {
+                    x = s - 1 - x;
+                    y = s - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+}
@@ -0,0 +1,144 @@
+package geo.util;
+
+import geo.store.math.Point2d;
+
+import java.math.BigDecimal;
+
+/**
+ * Robust geometric predicates, in the style of the adaptive predicates of Shewchuk.
+ * The determinants are first evaluated with plain floating point arithmetic, together with a bound on the rounding
+ * error. Only when the result is too close to zero to trust its sign, the determinant is evaluated again with exact
+ * arithmetic. Since every double can be represented exactly as a BigDecimal, the signs are always correct.
+ */
+public class Predicates {
+    // Half of the distance between 1 and the next double, i.e. the relative rounding error of a single operation.
+    private static final double EPSILON = Math.ulp(1d) / 2;
+
+    // The relative error bounds of the floating point evaluation of the orientation and incircle determinants.
+    private static final double ORIENT_ERROR_BOUND = (3 + 16 * EPSILON) * EPSILON;
+    private static final double INCIRCLE_ERROR_BOUND = (10 + 96 * EPSILON) * EPSILON;
+
+    /**
+     * Determine the orientation of the three points.
+     *
+     * @return A positive value if a, b and c are in CCW order, a negative value if they are in CW order, and zero if
+     *         the points are collinear. The coordinate system is assumed to have its y-axis pointing upwards.
+     */
+    public static double orient2d(Point2d a, Point2d b, Point2d c) {
+        return orient2d(a.x, a.y, b.x, b.y, c.x, c.y);
+    }
+
+    /**
+     * Determine the orientation of the three points given by their coordinates.
+     *
+     * @return A positive value if a, b and c are in CCW order, a negative value if they are in CW order, and zero if
+     *         the points are collinear.
+     */
+    public static double orient2d(double ax, double ay, double bx, double by, double cx, double cy) {
+        double left = (ax - cx) * (by - cy);
+        double right = (ay - cy) * (bx - cx);
+        double det = left - right;
+
+        // When the two products have different signs, no cancellation can occur and the sign is always correct.
+        double sum;
+        if(left > 0) {
+            if(right <= 0) return det;
+            sum = left + right;
+        } else if(left < 0) {
+            if(right >= 0) return det;
+            sum = -left - right;
+        } else {
+            return det;
+        }
+
+        // Trust the floating point result if it is further away from zero than the error bound.
+        double bound = ORIENT_ERROR_BOUND * sum;
+        if(det >= bound || -det >= bound) return det;
+
+        // Otherwise, evaluate the determinant exactly.
+        return orient2dExact(ax, ay, bx, by, cx, cy);
+    }
+
+    /**
+     * Determine whether d lies inside of the circle through a, b and c.
+     *
+     * @return A positive value if d is inside of the circle through a, b and c, which should be in CCW order. A
+     *         negative value if d is outside of the circle, and zero if the four points are cocircular. The sign is
+     *         reversed when a, b and c are in CW order.
+     */
+    public static double inCircle(Point2d a, Point2d b, Point2d c, Point2d d) {
+        return inCircle(a.x, a.y, b.x, b.y, c.x, c.y, d.x, d.y);
+    }
+
+    /**
+     * Determine whether d lies inside of the circle through a, b and c, given by their coordinates.
+     *
+     * @return A positive value if d is inside of the circle through a, b and c, which should be in CCW order. A
+     *         negative value if d is outside of the circle, and zero if the four points are cocircular.
+     */
+    public static double inCircle(double ax, double ay, double bx, double by, double cx, double cy,
+                                  double dx, double dy) {
+        double adx = ax - dx, ady = ay - dy;
+        double bdx = bx - dx, bdy = by - dy;
+        double cdx = cx - dx, cdy = cy - dy;
+
+        double bdxcdy = bdx * cdy, cdxbdy = cdx * bdy;
+        double cdxady = cdx * ady, adxcdy = adx * cdy;
+        double adxbdy = adx * bdy, bdxady = bdx * ady;
+
+        double alift = adx * adx + ady * ady;
+        double blift = bdx * bdx + bdy * bdy;
+        double clift = cdx * cdx + cdy * cdy;
+
+        double det = alift * (bdxcdy - cdxbdy) + blift * (cdxady - adxcdy) + clift * (adxbdy - bdxady);
+
+        // Trust the floating point result if it is further away from zero than the error bound.
+        double permanent = (Math.abs(bdxcdy) + Math.abs(cdxbdy)) * alift
+                + (Math.abs(cdxady) + Math.abs(adxcdy)) * blift
+                + (Math.abs(adxbdy) + Math.abs(bdxady)) * clift;
+        double bound = INCIRCLE_ERROR_BOUND * permanent;
+        if(det > bound || -det > bound) return det;
+
+        // Otherwise, evaluate the determinant exactly.
+        return inCircleExact(ax, ay, bx, by, cx, cy, dx, dy);
+    }
+
+    /**
+     * Evaluate the orientation determinant with exact arithmetic.
+     *
+     * @return The sign of the determinant.
+     */
+    private static double orient2dExact(double ax, double ay, double bx, double by, double cx, double cy) {
+        BigDecimal acx = exact(ax).subtract(exact(cx)), acy = exact(ay).subtract(exact(cy));
+        BigDecimal bcx = exact(bx).subtract(exact(cx)), bcy = exact(by).subtract(exact(cy));
+        return acx.multiply(bcy).subtract(acy.multiply(bcx)).signum();
+    }
+
+    /**
+     * Evaluate the incircle determinant with exact arithmetic.
+     *
+     * @return The sign of the determinant.
+     */
+    private static double inCircleExact(double ax, double ay, double bx, double by, double cx, double cy,
+                                        double dx, double dy) {
+        BigDecimal adx = exact(ax).subtract(exact(dx)), ady = exact(ay).subtract(exact(dy));
+        BigDecimal bdx = exact(bx).subtract(exact(dx)), bdy = exact(by).subtract(exact(dy));
+        BigDecimal cdx = exact(cx).subtract(exact(dx)), cdy = exact(cy).subtract(exact(dy));
+
+        BigDecimal alift = adx.multiply(adx).add(ady.multiply(ady));
+        BigDecimal blift = bdx.multiply(bdx).add(bdy.multiply(bdy));
+        BigDecimal clift = cdx.multiply(cdx).add(cdy.multiply(cdy));
+
+        return alift.multiply(bdx.multiply(cdy).subtract(cdx.multiply(bdy)))
+                .add(blift.multiply(cdx.multiply(ady).subtract(adx.multiply(cdy))))
+                .add(clift.multiply(adx.multiply(bdy).subtract(bdx.multiply(ady))))
+                .signum();
+    }
+
+    /**
+     * Convert the double to a BigDecimal without any rounding.
+     */
+    private static BigDecimal exact(double v) {
+        return new BigDecimal(v);
+    }
+}
@@ -0,0 +1,107 @@
+package geo.voronoi;
+
+import geo.delaunay.TriangleFace;
+import geo.store.halfedge.Edge;
+import geo.store.halfedge.Vertex;
+import geo.store.math.Point2d;
+import geo.util.ConvexClipping;
+
+/**
+ * The Voronoi cell of a single point, described by the ring of Voronoi vertices around the point. Every Voronoi vertex
+ * is the circum center of a Delaunay triangle, and each pair of consecutive vertices is connected by the Voronoi edge
+ * that is the dual of the Delaunay edge the two triangles share.
+ *
+ * A cell never changes. Since the triangles themselves are never changed either, a cell stays valid after the
+ * triangulation has changed, such that the half-edge structure of the diagram can be created at a later moment.
+ */
+final class Cell {
+    // The point in the center of the cell.
+    final Vertex<TriangleFace> site;
+
+    // The Voronoi vertices around the point, in CCW order on the screen. The same vertex is the same object in all
+    // cells it is part of.
+    final Point2d[] corners;
+
+    // The ids of the triangles of the Voronoi vertices, which are unique within the diagram.
+    final int[] ids;
+
+    // The area of the cell, after it has been clipped to the board.
+    final double area;
+
+    /**
+     * Create a cell with the given vertices.
+     *
+     * @param site The point in the center of the cell.
+     * @param corners The Voronoi vertices around the point.
+     * @param ids The ids of the triangles of the Voronoi vertices.
+     * @param area The area of the clipped cell.
+     */
+    private Cell(Vertex<TriangleFace> site, Point2d[] corners, int[] ids, double area) {
+        this.site = site;
+        this.corners = corners;
+        this.ids = ids;
+        this.area = area;
+    }
+
+    /**
+     * Create the cell of the given vertex, using the triangles that currently surround it.
+     *
+     * @param site A vertex that is part of the Delaunay triangulation.
+     * @param clipper The clipper that clips the cell to the board, which is only used by the current thread.
+     * @return The cell of the vertex.
+     */
+    static Cell create(Vertex<TriangleFace> site, ConvexClipping clipper) {
+        // Count the edges around the vertex, walking over them in the same order as the vertex does.
+        int degree = 0;
+        Edge<TriangleFace> edge = site.incidentEdge;
+        do {
+            degree++;
+            edge = edge.twin.next();
+        } while(edge != site.incidentEdge);
+
+        // Gather the circum centers of the triangles around the vertex.
+        Point2d[] corners = new Point2d[degree];
+        int[] ids = new int[degree];
+        for(int i = 0; i < degree; i++) {
+            corners[i] = edge.incidentFace.cc;
+            ids[i] = edge.incidentFace.id;
+            edge = edge.twin.next();
+        }
+        return create(site, corners, ids, clipper);
+    }
+
+    /**
+     * Create the cell of the given point, of which the Voronoi vertices are known.
+     *
+     * @param site The point in the center of the cell.
+     * @param corners The Voronoi vertices around the point, in CCW order on the screen.
+     * @param ids The ids of the triangles of the Voronoi vertices.
+     * @param clipper The clipper that clips the cell to the board, which is only used by the current thread.
+     * @return The cell of the point.
+     */
+    static Cell create(Vertex<TriangleFace> site, Point2d[] corners, int[] ids, ConvexClipping clipper) {
+        // Calculate the area in the same way as a face does, together with the bounding box of the polygon.
+        double doubleArea = 0;
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for(int i = 0; i < corners.length; i++) {
+            Point2d a = corners[i], b = corners[i + 1 == corners.length ? 0 : i + 1];
+            doubleArea += (a.y + b.y) * (b.x - a.x);
+            minX = Math.min(minX, a.x);
+            minY = Math.min(minY, a.y);
+            maxX = Math.max(maxX, a.x);
+            maxY = Math.max(maxY, a.y);
+        }
+
+        // Most cells are completely on the board, so only the cells along the border are clipped.
+        if(clipper.getBounds().contains(minX, minY, maxX, maxY)) {
+            return new Cell(site, corners, ids, doubleArea / 2);
+        }
+        clipper.clear();
+        for(Point2d corner : corners) {
+            clipper.add(corner.x, corner.y);
+        }
+        clipper.clip();
+        return new Cell(site, corners, ids, clipper.getArea());
+    }
+}
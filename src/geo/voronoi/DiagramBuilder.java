@@ -0,0 +1,312 @@
+package geo.voronoi;
+
+import geo.store.halfedge.Edge;
+import geo.store.halfedge.Face;
+import geo.store.halfedge.Vertex;
+import geo.store.math.Point2d;
+import geo.store.math.Rectangle2d;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the faces of a Voronoi diagram as a single half-edge structure, in which neighbouring faces share their
+ * vertices and edges. Each circum center becomes exactly one vertex, and each Voronoi edge is a pair of twin half-edges
+ * of which each half belongs to one of the two faces it separates.
+ *
+ * The edges are clipped to the board one by one, such that the point where an edge leaves the board is shared as
+ * well. The parts of the faces along the border of the board are closed with half-edges of which the twin has no face.
+ */
+class DiagramBuilder {
+    // The rectangle the faces are clipped to.
+    private final double minX, minY, maxX, maxY;
+
+    // The vertices of the circum centers, by the corner of the cells they belong to.
+    private final Map<Point2d, Vertex<Face>> centers = new IdentityHashMap<>();
+
+    // The half-edges that have been created by the face on the other side, by the ids of the vertices they run between.
+    private final Map<Long, Edge<Face>> pending = new HashMap<>();
+
+    // All vertices that have been created.
+    final List<Vertex<Face>> vertices = new ArrayList<>();
+
+    // One half-edge of each pair that has been created.
+    final List<Edge<Face>> edges = new ArrayList<>();
+
+    /**
+     * Create a builder for faces that are clipped to the given rectangle.
+     *
+     * @param clippingArea The rectangle to clip to.
+     */
+    DiagramBuilder(Rectangle2d clippingArea) {
+        minX = clippingArea.minX;
+        minY = clippingArea.minY;
+        maxX = clippingArea.maxX;
+        maxY = clippingArea.maxY;
+    }
+
+    /**
+     * Create the face of the given cell, sharing the vertices and edges with the faces that have been created before.
+     *
+     * @param cell The cell to create the face of.
+     * @return The face of the cell clipped to the board, or null if the cell is not on the board.
+     */
+    Face build(Cell cell) {
+        List<Edge<Face>> cycle = new ArrayList<>();
+        Point2d[] corners = cell.corners;
+
+        // Walk over the Voronoi edges around the site, and close the gaps where the face is cut off by the border.
+        Edge<Face> first = null, last = null;
+        for(int i = 0; i < corners.length; i++) {
+            int j = (i + 1) % corners.length;
+            Edge<Face> edge = getEdge(corners[i], cell.ids[i], corners[j], cell.ids[j]);
+
+            // Edges that are completely outside of the board are skipped.
+            if(edge == null) continue;
+
+            if(last == null) {
+                first = edge;
+            } else {
+                addBorder(cycle, last.twin.origin, edge.origin);
+            }
+            cycle.add(edge);
+            last = edge;
+        }
+
+        if(first == null) {
+            // None of the edges is on the board, so the face either covers the whole board or is not on it at all.
+            // The latter happens to points outside of the board after the board has become smaller.
+            if(cell.area <= 0) return null;
+            Vertex<Face> corner = createVertex(minX, minY);
+            addBorder(cycle, corner, corner);
+        } else {
+            // Close the cycle.
+            addBorder(cycle, last.twin.origin, first.origin);
+        }
+
+        return new Face(cell.site, cycle);
+    }
+
+    /**
+     * Get the half-edge from one Voronoi vertex to the next.
+     *
+     * @param from The Voronoi vertex the half-edge starts at.
+     * @param fromId The id of the triangle of the first vertex.
+     * @param to The Voronoi vertex the half-edge ends at, of which the triangle shares an edge with the first.
+     * @param toId The id of the triangle of the second vertex.
+     * @return The half-edge clipped to the board, or null if it is not on the board.
+     */
+    private Edge<Face> getEdge(Point2d from, int fromId, Point2d to, int toId) {
+        // When the face on the other side has been created already, we take the twin of its half-edge.
+        Edge<Face> edge = pending.remove(key(fromId, toId));
+        if(edge != null) return edge;
+
+        // Always clip in the same direction, such that both faces come to the same conclusion.
+        boolean forward = fromId < toId;
+        Point2d a = forward ? from : to;
+        Point2d b = forward ? to : from;
+        double dx = b.x - a.x;
+        double dy = b.y - a.y;
+
+        // Clip the segment with the Liang-Barsky algorithm, remembering which of the borders it crosses.
+        double[] t = {0, 1};
+        int[] border = {-1, -1};
+        if(!clip(-dx, a.x - minX, 0, t, border) || !clip(dx, maxX - a.x, 1, t, border)
+                || !clip(-dy, a.y - minY, 2, t, border) || !clip(dy, maxY - a.y, 3, t, border)) {
+            return null;
+        }
+
+        // A segment that only touches the border is not on the board.
+        if(t[0] == t[1] && (border[0] != -1 || border[1] != -1)) return null;
+
+        // Use the vertices of the circum centers, unless the segment has been cut off by the border.
+        Vertex<Face> start = border[0] == -1 ? getCenter(a) : createBorderVertex(a, dx, dy, t[0], border[0]);
+        Vertex<Face> end = border[1] == -1 ? getCenter(b) : createBorderVertex(a, dx, dy, t[1], border[1]);
+
+        // Create the pair, and keep the half-edge of the other face until it is asked for.
+        edge = forward ? new Edge<>(start, end) : new Edge<>(end, start);
+        pending.put(key(toId, fromId), edge.twin);
+        edges.add(edge);
+        return edge;
+    }
+
+    /**
+     * Clip the parametric segment against one of the borders of the board.
+     *
+     * @param p The change along the normal of the border, per unit of the parameter.
+     * @param q The distance of the start of the segment to the border, positive when it is on the inside.
+     * @param side The index of the border.
+     * @param t The range of the parameter that is on the board, which is narrowed.
+     * @param border The borders at which the range starts and ends, or -1 if the range starts or ends at a center.
+     * @return False if no part of the segment is on the board, true otherwise.
+     */
+    private static boolean clip(double p, double q, int side, double[] t, int[] border) {
+        if(p == 0) {
+            // The segment is parallel to the border.
+            return q >= 0;
+        }
+
+        double r = q / p;
+        if(p < 0) {
+            // The segment enters the board through this border.
+            if(r > t[1]) return false;
+            if(r > t[0]) {
+                t[0] = r;
+                border[0] = side;
+            }
+        } else {
+            // The segment leaves the board through this border.
+            if(r < t[0]) return false;
+            if(r < t[1]) {
+                t[1] = r;
+                border[1] = side;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the vertex at the given circum center, creating it when it is asked for the first time.
+     *
+     * @param corner The circum center, as found in the cells.
+     * @return The vertex at the circum center.
+     */
+    private Vertex<Face> getCenter(Point2d corner) {
+        Vertex<Face> center = centers.get(corner);
+        if(center == null) {
+            center = createVertex(corner.x, corner.y);
+            centers.put(corner, center);
+        }
+        return center;
+    }
+
+    /**
+     * Create the vertex where a segment crosses the border, placed exactly on the border.
+     *
+     * @param a The start of the segment.
+     * @param dx The change in x-coordinate along the segment.
+     * @param dy The change in y-coordinate along the segment.
+     * @param t The parameter at which the segment crosses the border.
+     * @param side The index of the border.
+     * @return The vertex on the border.
+     */
+    private Vertex<Face> createBorderVertex(Point2d a, double dx, double dy, double t, int side) {
+        double x = Math.max(minX, Math.min(maxX, a.x + t * dx));
+        double y = Math.max(minY, Math.min(maxY, a.y + t * dy));
+        switch(side) {
+            case 0: return createVertex(minX, y);
+            case 1: return createVertex(maxX, y);
+            case 2: return createVertex(x, minY);
+            default: return createVertex(x, maxY);
+        }
+    }
+
+    /**
+     * Create a new vertex at the given coordinates.
+     *
+     * @param x The x-coordinate of the vertex.
+     * @param y The y-coordinate of the vertex.
+     * @return The new vertex.
+     */
+    private Vertex<Face> createVertex(double x, double y) {
+        Vertex<Face> vertex = new Vertex<>(x, y, null);
+        vertices.add(vertex);
+        return vertex;
+    }
+
+    /**
+     * Add the half-edges along the border from one vertex to another, passing the corners of the board in between.
+     * The border is followed in the same direction as the faces are, i.e. up along the left side of the board.
+     *
+     * @param cycle The half-edges of the face, to which the new half-edges are added.
+     * @param from The vertex on the border at which the face leaves the board.
+     * @param to The vertex on the border at which the face enters the board again, which is the same vertex as the
+     *           first when the whole border should be followed.
+     */
+    private void addBorder(List<Edge<Face>> cycle, Vertex<Face> from, Vertex<Face> to) {
+        // The positions of the corners along the border, starting at the bottom left corner.
+        double height = maxY - minY, width = maxX - minX;
+        double[] corners = {0, height, height + width, 2 * height + width};
+        double perimeter = 2 * (height + width);
+
+        // Consecutive Voronoi edges that meet in a circum center are connected already.
+        if(from == to && !cycle.isEmpty()) return;
+
+        // Find the stretch of the border we have to follow.
+        double start = getBorderPosition(from);
+        double end = getBorderPosition(to);
+        if(end < start || from == to) end += perimeter;
+
+        // Add an edge to every corner that is passed, and finally to the target.
+        Vertex<Face> current = from;
+        for(int i = 0; i < 8; i++) {
+            double position = corners[i % 4] + (i / 4) * perimeter;
+            if(position <= start || position >= end) continue;
+
+            Vertex<Face> corner = getCorner(i % 4);
+            current = addBorderEdge(cycle, current, corner);
+        }
+        addBorderEdge(cycle, current, to);
+    }
+
+    /**
+     * Add a half-edge along the border, of which the twin is outside of the diagram.
+     *
+     * @param cycle The half-edges of the face, to which the new half-edge is added.
+     * @param from The vertex the half-edge starts at.
+     * @param to The vertex the half-edge ends at.
+     * @return The vertex the half-edge ends at.
+     */
+    private Vertex<Face> addBorderEdge(List<Edge<Face>> cycle, Vertex<Face> from, Vertex<Face> to) {
+        Edge<Face> edge = new Edge<>(from, to);
+        cycle.add(edge);
+        edges.add(edge);
+        return to;
+    }
+
+    /**
+     * Create a vertex at one of the corners of the board.
+     *
+     * @param index The index of the corner, counting from the bottom left corner in the direction of the faces.
+     * @return A new vertex at the corner.
+     */
+    private Vertex<Face> getCorner(int index) {
+        switch(index) {
+            case 0: return createVertex(minX, minY);
+            case 1: return createVertex(minX, maxY);
+            case 2: return createVertex(maxX, maxY);
+            default: return createVertex(maxX, minY);
+        }
+    }
+
+    /**
+     * Get the distance along the border from the bottom left corner to the given vertex on the border, in the
+     * direction in which the faces are followed.
+     *
+     * @param v A vertex on the border.
+     * @return The distance along the border.
+     */
+    private double getBorderPosition(Vertex<Face> v) {
+        double height = maxY - minY, width = maxX - minX;
+        if(v.x == minX) return v.y - minY;
+        if(v.y == maxY) return height + (v.x - minX);
+        if(v.x == maxX) return height + width + (maxY - v.y);
+        return 2 * height + width + (maxX - v.x);
+    }
+
+    /**
+     * Get the key of the half-edge between the given Voronoi vertices.
+     *
+     * @param from The id of the triangle of the vertex the half-edge starts at.
+     * @param to The id of the triangle of the vertex the half-edge ends at.
+     * @return A key that is unique for the direction and the pair of triangles.
+     */
+    private static long key(int from, int to) {
+        // Multiplying by an odd constant keeps the keys unique, but spreads the bits of the ids over the whole key.
+        // Otherwise the hash of the key would be the same for both directions, and for many nearby pairs of ids.
+        return (((long) from << 32) | (to & 0xffffffffL)) * 0x9E3779B97F4A7C15L;
+    }
+}
@@ -0,0 +1,458 @@
+package geo.voronoi;
+
+import geo.delaunay.MeshContext;
+import geo.delaunay.TriangleFace;
+import geo.state.GameState;
+import geo.store.halfedge.Vertex;
+import geo.store.math.Point2d;
+import geo.store.math.Rectangle2d;
+import geo.util.ConvexClipping;
+import geo.util.Predicates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Create a Voronoi diagram directly from a set of points with Fortune's sweep line algorithm, without building a
+ * Delaunay triangulation first.
+ *
+ * The sweep line moves in the direction of the y-axis. The beach line is kept in a balanced search tree on the order of
+ * its arcs, and the site and circle events are handled in the order of their y-coordinate. Every circle event is a
+ * Voronoi vertex, from which the rings of the cells are put together after the sweep.
+ *
+ * The symbolic corners of the bounding triangle of the triangulation are added as sites as well, such that every cell
+ * of a point on the board is bounded, and is exactly the same as the cell that the dual of the triangulation gives.
+ */
+public class FortuneSweep {
+    // The sites, which are the points followed by the symbolic corners.
+    private final List<Vertex<TriangleFace>> sites;
+
+    // The Voronoi vertices that have been found, together with the sites of their triangles in CCW order.
+    private final List<Point2d> centers = new ArrayList<>();
+    private int[] triangles = new int[3 * 64];
+
+    // The circle events that are waiting to be handled.
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+
+    // The root of the beach line, and the source of the priorities of its arcs.
+    private Arc root;
+    private final Random random = new Random(0);
+
+    /**
+     * Create a sweep over the given points.
+     *
+     * @param points The points on the board.
+     */
+    private FortuneSweep(List<Vertex<TriangleFace>> points) {
+        List<Vertex<TriangleFace>> corners = MeshContext.createCorners();
+        sites = new ArrayList<>(points.size() + corners.size());
+        sites.addAll(points);
+        sites.addAll(corners);
+    }
+
+    /**
+     * Create the Voronoi diagram of the given points.
+     *
+     * @param points The points on the board, which should all be at a different position.
+     * @param clippingArea The rectangle to clip the cells to.
+     * @return The Voronoi diagram of the points, with the same cells as the dual of their Delaunay triangulation.
+     */
+    public static VoronoiDiagram createDiagram(List<Vertex<TriangleFace>> points, Rectangle2d clippingArea) {
+        FortuneSweep sweep = new FortuneSweep(points);
+        sweep.sweep();
+        return sweep.createDiagram(points.size(), clippingArea);
+    }
+
+    /**
+     * Handle all site and circle events.
+     */
+    private void sweep() {
+        // The sites are handled from the lowest to the highest y-coordinate.
+        Integer[] order = new Integer[sites.size()];
+        for(int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.<Integer>comparingDouble(i -> sites.get(i).y)
+                .thenComparingDouble(i -> sites.get(i).x));
+
+        // The lowest sites form the first beach line, next to each other.
+        Arc last = null;
+        int next = 0;
+        while(next < order.length && sites.get(order[next]).y == sites.get(order[0]).y) {
+            last = insertAfter(last, order[next++]);
+        }
+
+        while(next < order.length || !events.isEmpty()) {
+            // Circle events go before site events at the same height, such that degenerate arcs disappear first.
+            Event event = events.peek();
+            if(event != null && (next == order.length || event.y <= sites.get(order[next]).y)) {
+                events.poll();
+                if(event.arc != null) handleCircleEvent(event);
+            } else {
+                handleSiteEvent(order[next++]);
+            }
+        }
+    }
+
+    /**
+     * Split the arc above the given site, and put the arc of the site in between.
+     *
+     * @param site The index of the site.
+     */
+    private void handleSiteEvent(int site) {
+        Vertex<TriangleFace> p = sites.get(site);
+        Arc arc = find(p.x, p.y);
+        removeEvent(arc);
+
+        // The arc is split in two, with the new arc in between.
+        Arc middle = insertAfter(arc, site);
+        Arc right = insertAfter(middle, arc.site);
+        addEvent(arc);
+        addEvent(right);
+    }
+
+    /**
+     * Remove the arc that disappears in the given event, and record the Voronoi vertex at the center of its circle.
+     *
+     * @param event The circle event.
+     */
+    private void handleCircleEvent(Event event) {
+        Arc arc = event.arc;
+        Arc left = arc.prev, right = arc.next;
+        addTriangle(event.center, left.site, arc.site, right.site);
+
+        // The neighbours of the arc now meet each other, which may give them new circle events.
+        remove(arc);
+        removeEvent(left);
+        removeEvent(right);
+        addEvent(left);
+        addEvent(right);
+    }
+
+    /**
+     * Add the circle event of the given arc, if its neighbours converge towards each other.
+     *
+     * @param arc The arc that may disappear.
+     */
+    private void addEvent(Arc arc) {
+        if(arc.prev == null || arc.next == null) return;
+        Vertex<TriangleFace> a = sites.get(arc.prev.site), b = sites.get(arc.site), c = sites.get(arc.next.site);
+
+        // The breakpoints only meet when the sites make a left turn. Events below the sweep line are kept, since
+        // they are at the same height as the current event when multiple sites are on the same circle.
+        if(Predicates.orient2d(a, b, c) <= 0) return;
+        Point2d center = getCircumCenter(a, b, c);
+        arc.event = new Event(arc, center, center.y + center.distance(b));
+        events.add(arc.event);
+    }
+
+    /**
+     * Cancel the circle event of the given arc, if it has any.
+     *
+     * @param arc The arc of which the neighbours have changed.
+     */
+    private void removeEvent(Arc arc) {
+        if(arc.event != null) {
+            arc.event.arc = null;
+            arc.event = null;
+        }
+    }
+
+    /**
+     * Record a Voronoi vertex.
+     *
+     * @param center The position of the vertex.
+     * @param a The first site of the triangle of the vertex.
+     * @param b The second site, in CCW order.
+     * @param c The third site, in CCW order.
+     */
+    private void addTriangle(Point2d center, int a, int b, int c) {
+        int i = 3 * centers.size();
+        if(i + 3 > triangles.length) triangles = Arrays.copyOf(triangles, 2 * triangles.length);
+        triangles[i] = a;
+        triangles[i + 1] = b;
+        triangles[i + 2] = c;
+        centers.add(center);
+    }
+
+    /**
+     * Find the arc of the beach line above the given x-coordinate.
+     *
+     * @param x The x-coordinate.
+     * @param y The current position of the sweep line.
+     * @return The arc that covers the x-coordinate.
+     */
+    private Arc find(double x, double y) {
+        Arc arc = root;
+        while(true) {
+            if(arc.prev != null && x < getBreakpoint(arc.prev.site, arc.site, y)) {
+                if(arc.left == null) return arc;
+                arc = arc.left;
+            } else if(arc.next != null && x > getBreakpoint(arc.site, arc.next.site, y)) {
+                if(arc.right == null) return arc;
+                arc = arc.right;
+            } else {
+                return arc;
+            }
+        }
+    }
+
+    /**
+     * Get the x-coordinate of the breakpoint between two neighbouring arcs.
+     *
+     * @param left The site of the left arc.
+     * @param right The site of the right arc.
+     * @param y The current position of the sweep line.
+     * @return The x-coordinate at which the left arc ends and the right arc starts.
+     */
+    private double getBreakpoint(int left, int right, double y) {
+        Vertex<TriangleFace> a = sites.get(left), b = sites.get(right);
+
+        // Sites on the sweep line have an arc without width.
+        if(a.y == y && b.y == y) return (a.x + b.x) / 2;
+        if(a.y == y) return a.x;
+        if(b.y == y) return b.x;
+
+        // Intersect the parabolas, which gives a quadratic equation in x.
+        double da = 2 * (a.y - y), db = 2 * (b.y - y);
+        double qa = db - da;
+        double qb = -2 * (db * a.x - da * b.x);
+        double qc = db * a.x * a.x - da * b.x * b.x + da * db * (a.y - b.y) / 2;
+        if(qa == 0) return -qc / qb;
+
+        // Take the intersection at which the left arc goes under the right arc, avoiding cancellation.
+        double d = Math.sqrt(Math.max(0, qb * qb - 4 * qa * qc));
+        return -qb > 0 ? 2 * qc / (-qb + d) : (-qb - d) / (2 * qa);
+    }
+
+    /**
+     * Get the circum center of three points, in the same way as a triangle does.
+     *
+     * @param a The first point.
+     * @param b The second point.
+     * @param c The third point.
+     * @return The center of the circle through the points.
+     */
+    private static Point2d getCircumCenter(Point2d a, Point2d b, Point2d c) {
+        double a2 = a.x * a.x + a.y * a.y;
+        double b2 = b.x * b.x + b.y * b.y;
+        double c2 = c.x * c.x + c.y * c.y;
+
+        double det = 1 / (2 * (a.x * (b.y - c.y) + b.x * (c.y - a.y) + c.x * (a.y - b.y)));
+        double x = det * (a2 * (b.y - c.y) + b2 * (c.y - a.y) + c2 * (a.y - b.y));
+        double y = det * (a2 * (c.x - b.x) + b2 * (a.x - c.x) + c2 * (b.x - a.x));
+
+        return new Point2d(x, y);
+    }
+
+    /**
+     * Insert a new arc into the beach line, directly after the given arc.
+     *
+     * @param arc The arc after which the new arc is placed, or null if the beach line is empty.
+     * @param site The index of the site of the new arc.
+     * @return The new arc.
+     */
+    private Arc insertAfter(Arc arc, int site) {
+        Arc node = new Arc(site, random.nextInt());
+        if(arc == null) {
+            // The beach line is empty.
+            root = node;
+            return node;
+        }
+
+        // Link the arc into the order of the beach line.
+        node.prev = arc;
+        node.next = arc.next;
+        if(arc.next != null) arc.next.prev = node;
+        arc.next = node;
+
+        // The new arc is the leftmost node in the right subtree of the given arc.
+        if(arc.right == null) {
+            arc.right = node;
+            node.parent = arc;
+        } else {
+            Arc successor = node.next;
+            successor.left = node;
+            node.parent = successor;
+        }
+
+        // Restore the heap order of the priorities.
+        while(node.parent != null && node.parent.priority < node.priority) {
+            rotateUp(node);
+        }
+        return node;
+    }
+
+    /**
+     * Remove an arc from the beach line.
+     *
+     * @param arc The arc to remove.
+     */
+    private void remove(Arc arc) {
+        // Move the arc down until it is a leaf, and then cut it off.
+        while(arc.left != null || arc.right != null) {
+            Arc child = arc.left == null ? arc.right
+                    : arc.right == null ? arc.left
+                    : arc.left.priority > arc.right.priority ? arc.left : arc.right;
+            rotateUp(child);
+        }
+        replaceChild(arc.parent, arc, null);
+
+        // Unlink the arc from the order of the beach line.
+        if(arc.prev != null) arc.prev.next = arc.next;
+        if(arc.next != null) arc.next.prev = arc.prev;
+    }
+
+    /**
+     * Rotate the given node above its parent, keeping the order of the beach line.
+     *
+     * @param node The node that moves up.
+     */
+    private void rotateUp(Arc node) {
+        Arc parent = node.parent;
+        replaceChild(parent.parent, parent, node);
+        if(parent.left == node) {
+            parent.left = node.right;
+            if(node.right != null) node.right.parent = parent;
+            node.right = parent;
+        } else {
+            parent.right = node.left;
+            if(node.left != null) node.left.parent = parent;
+            node.left = parent;
+        }
+        parent.parent = node;
+    }
+
+    /**
+     * Replace a child of the given node, or the root when the node is null.
+     *
+     * @param parent The parent of the old child.
+     * @param child The old child.
+     * @param replacement The new child.
+     */
+    private void replaceChild(Arc parent, Arc child, Arc replacement) {
+        if(parent == null) {
+            root = replacement;
+        } else if(parent.left == child) {
+            parent.left = replacement;
+        } else {
+            parent.right = replacement;
+        }
+        if(replacement != null) replacement.parent = parent;
+    }
+
+    /**
+     * Put the Voronoi vertices around every point together into a cell.
+     *
+     * @param n The amount of points, which are the first sites.
+     * @param clippingArea The rectangle to clip the cells to.
+     * @return The Voronoi diagram of the points.
+     */
+    private VoronoiDiagram createDiagram(int n, Rectangle2d clippingArea) {
+        // Gather the triangles around every site.
+        int m = centers.size();
+        int[] start = new int[sites.size() + 1];
+        for(int i = 0; i < 3 * m; i++) start[triangles[i] + 1]++;
+        for(int i = 0; i < sites.size(); i++) start[i + 1] += start[i];
+        int[] incident = new int[3 * m];
+        int[] fill = Arrays.copyOf(start, sites.size());
+        for(int i = 0; i < 3 * m; i++) incident[fill[triangles[i]]++] = i;
+
+        List<Cell> cells = new ArrayList<>(n);
+        double areaRed = 0, areaBlue = 0;
+        ConvexClipping clipper = new ConvexClipping(clippingArea);
+        for(int site = 0; site < n; site++) {
+            int degree = start[site + 1] - start[site];
+            Point2d[] corners = new Point2d[degree];
+            int[] ids = new int[degree];
+
+            // In the triangle (a, b, c) around a, the next triangle in CCW order is the one that starts with (a, c).
+            int current = incident[start[site]];
+            for(int k = degree - 1; k >= 0; k--) {
+                // The cells are in CCW order on the screen, so the ring is filled from the back.
+                int triangle = current / 3;
+                corners[k] = centers.get(triangle);
+                ids[k] = triangle;
+
+                int c = triangles[3 * triangle + (current + 2) % 3];
+                for(int j = start[site]; j < start[site + 1]; j++) {
+                    int other = incident[j];
+                    if(triangles[3 * (other / 3) + (other + 1) % 3] == c) {
+                        current = other;
+                        break;
+                    }
+                }
+            }
+
+            // Create the cell, and add its area to the owner.
+            Cell cell = Cell.create(sites.get(site), corners, ids, clipper);
+            cells.add(cell);
+            if(sites.get(site).player == GameState.PlayerTurn.RED) {
+                areaRed += cell.area;
+            } else {
+                areaBlue += cell.area;
+            }
+        }
+        return new VoronoiDiagram(Collections.unmodifiableList(cells), clippingArea, areaRed, areaBlue);
+    }
+
+    /**
+     * An arc of the beach line, which is a node in a treap ordered from left to right.
+     */
+    private static class Arc {
+        // The index of the site of the arc.
+        private final int site;
+
+        // The random priority of the node in the treap.
+        private final int priority;
+
+        // The neighbouring arcs on the beach line.
+        private Arc prev, next;
+
+        // The nodes around this node in the treap.
+        private Arc left, right, parent;
+
+        // The circle event at which the arc disappears, if any.
+        private Event event;
+
+        private Arc(int site, int priority) {
+            this.site = site;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * A circle event, at which an arc of the beach line disappears.
+     */
+    private static class Event implements Comparable<Event> {
+        // The arc that disappears, or null if the event has been cancelled.
+        private Arc arc;
+
+        // The center of the circle, which becomes a Voronoi vertex.
+        private final Point2d center;
+
+        // The position of the sweep line at which the event happens.
+        private final double y;
+
+        private Event(Arc arc, Point2d center, double y) {
+            this.arc = arc;
+            this.center = center;
+            this.y = y;
+        }
+
+        /**
+         * Events are handled from the lowest to the highest position, and from left to right.
+         *
+         * @param o The event to compare to.
+         * @return A negative value if this event should be handled first, a positive value otherwise.
+         */
+        @Override
+        public int compareTo(Event o) {
+            int result = Double.compare(y, o.y);
+            return result != 0 ? result : Double.compare(center.x, o.center.x);
+        }
+    }
+}
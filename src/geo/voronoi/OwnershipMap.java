@@ -0,0 +1,347 @@
+package geo.voronoi;
+
+import geo.state.GameState;
+import geo.store.math.Point2d;
+import geo.store.math.Rectangle2d;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A raster of the board that holds, for every pixel, the player that owns the Voronoi cell containing the center of
+ * the pixel. The owner of a pixel can thus be looked up in constant time, without searching through the diagram.
+ *
+ * The pixels are stored as a byte each, in square tiles. A map never changes: updating it gives a new map, in which
+ * only the tiles that are touched by the changed cells are copied, while all other tiles are shared with the old map.
+ * This makes the map as persistent as the diagram it belongs to, and lets a drawing of the map skip unchanged tiles.
+ */
+public final class OwnershipMap {
+    // The tiles are squares with sides of this power of two.
+    private static final int TILE_SHIFT = 6;
+    public static final int TILE_SIZE = 1 << TILE_SHIFT;
+
+    // The values of the pixels.
+    public static final byte NONE = 0, RED = 1, BLUE = 2;
+
+    // The tile that is shared by all empty parts of the board, which is copied before it is written to.
+    private static final byte[] EMPTY_TILE = new byte[TILE_SIZE * TILE_SIZE];
+
+    // The board coordinates of the top left pixel, and the size of the raster in pixels.
+    public final int originX, originY, width, height;
+
+    // The amount of tiles in each row and in each column.
+    private final int columns, rows;
+
+    // The tiles, row by row, in which the pixels are stored row by row as well.
+    private final byte[][] tiles;
+
+    // The amount of pixels owned by both players, per tile and in total.
+    private final int[] redCounts, blueCounts;
+    private final long totalRed, totalBlue;
+
+    /**
+     * Create a map in which no pixel is owned yet, covering the pixels inside of the given rectangle.
+     *
+     * @param area The rectangle the Voronoi cells are clipped to.
+     */
+    public OwnershipMap(Rectangle2d area) {
+        originX = (int) Math.ceil(area.minX);
+        originY = (int) Math.ceil(area.minY);
+        width = Math.max(0, (int) Math.floor(area.maxX) - originX);
+        height = Math.max(0, (int) Math.floor(area.maxY) - originY);
+        columns = (width + TILE_SIZE - 1) >> TILE_SHIFT;
+        rows = (height + TILE_SIZE - 1) >> TILE_SHIFT;
+        tiles = new byte[columns * rows][];
+        Arrays.fill(tiles, EMPTY_TILE);
+        redCounts = new int[tiles.length];
+        blueCounts = new int[tiles.length];
+        totalRed = totalBlue = 0;
+    }
+
+    /**
+     * Create a map that shares its dimensions with the given map, but has other tiles.
+     *
+     * @param map The map of which the dimensions are taken.
+     * @param tiles The tiles of the new map.
+     * @param redCounts The amount of red pixels per tile.
+     * @param blueCounts The amount of blue pixels per tile.
+     */
+    private OwnershipMap(OwnershipMap map, byte[][] tiles, int[] redCounts, int[] blueCounts) {
+        originX = map.originX;
+        originY = map.originY;
+        width = map.width;
+        height = map.height;
+        columns = map.columns;
+        rows = map.rows;
+        this.tiles = tiles;
+        this.redCounts = redCounts;
+        this.blueCounts = blueCounts;
+
+        // The totals are added up once, since there are only a few hundred tiles.
+        long red = 0, blue = 0;
+        for(int i = 0; i < tiles.length; i++) {
+            red += redCounts[i];
+            blue += blueCounts[i];
+        }
+        totalRed = red;
+        totalBlue = blue;
+    }
+
+    /**
+     * Create a new map, in which the pixels covered by the given cells are owned by the players of those cells.
+     * All other pixels keep their owner, so the cells should together cover every pixel of which the owner changed.
+     *
+     * @param cells The cells that have changed.
+     * @param pool The pool on which the tiles are filled, or null to fill them on the calling thread.
+     * @return The updated map.
+     */
+    OwnershipMap update(Collection<Cell> cells, ForkJoinPool pool) {
+        if(cells.isEmpty() || tiles.length == 0) return this;
+
+        // Copy the references to the tiles, such that the tiles themselves are only copied when they are written to.
+        Update update = new Update(cells.toArray(new Cell[0]), tiles.clone(), redCounts.clone(), blueCounts.clone());
+        FillTask task = new FillTask(update, 0, rows);
+        if(pool == null) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return new OwnershipMap(this, update.tiles, update.redCounts, update.blueCounts);
+    }
+
+    /**
+     * Get the owner of the given pixel.
+     *
+     * @param x The x-coordinate of the pixel on the board.
+     * @param y The y-coordinate of the pixel on the board.
+     * @return The player that owns the pixel, or null if the pixel is not owned or not on the board.
+     */
+    public GameState.PlayerTurn getOwner(int x, int y) {
+        switch(getValue(x - originX, y - originY)) {
+            case RED: return GameState.PlayerTurn.RED;
+            case BLUE: return GameState.PlayerTurn.BLUE;
+            default: return null;
+        }
+    }
+
+    /**
+     * Get the value of the given pixel of the raster.
+     *
+     * @param i The column of the pixel in the raster.
+     * @param j The row of the pixel in the raster.
+     * @return The value of the pixel, or NONE if the pixel is not part of the raster.
+     */
+    public byte getValue(int i, int j) {
+        if(i < 0 || j < 0 || i >= width || j >= height) return NONE;
+        return tiles[(j >> TILE_SHIFT) * columns + (i >> TILE_SHIFT)][((j & (TILE_SIZE - 1)) << TILE_SHIFT)
+                + (i & (TILE_SIZE - 1))];
+    }
+
+    /**
+     * Get the amount of pixels the given player owns. This is an estimate of the area of the player that does not
+     * depend on the areas of the Voronoi cells, such that the two can be compared.
+     *
+     * @param player The player.
+     * @return The amount of pixels owned by the player.
+     */
+    public long getArea(GameState.PlayerTurn player) {
+        return player == GameState.PlayerTurn.RED ? totalRed : totalBlue;
+    }
+
+    /**
+     * Get the amount of tiles in each row of tiles.
+     *
+     * @return The amount of columns of tiles.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Get the amount of rows of tiles.
+     *
+     * @return The amount of rows of tiles.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the pixels of a tile, row by row. A tile that is shared by two maps has not changed in between.
+     *
+     * @param column The column of the tile.
+     * @param row The row of the tile.
+     * @return The pixels of the tile, which should not be changed.
+     */
+    public byte[] getTile(int column, int row) {
+        return tiles[row * columns + column];
+    }
+
+    /**
+     * The state of a single update, which is shared by the tasks that fill the rows of tiles. Every task only touches
+     * the tiles in its own rows, so no further synchronization is needed.
+     */
+    private class Update {
+        // The cells to draw.
+        private final Cell[] cells;
+
+        // The tiles and counts of the new map.
+        private final byte[][] tiles;
+        private final int[] redCounts, blueCounts;
+
+        // Whether the tiles have been copied during this update already.
+        private final boolean[] copied;
+
+        private Update(Cell[] cells, byte[][] tiles, int[] redCounts, int[] blueCounts) {
+            this.cells = cells;
+            this.tiles = tiles;
+            this.redCounts = redCounts;
+            this.blueCounts = blueCounts;
+            this.copied = new boolean[tiles.length];
+        }
+
+        /**
+         * Fill the pixels of all cells within the given rows of tiles.
+         *
+         * @param from The first row of tiles.
+         * @param to The row of tiles after the last one.
+         */
+        private void fill(int from, int to) {
+            int firstRow = from << TILE_SHIFT, lastRow = Math.min(height, to << TILE_SHIFT);
+            for(Cell cell : cells) {
+                fill(cell.corners, cell.site.player == GameState.PlayerTurn.RED ? RED : BLUE, firstRow, lastRow);
+            }
+        }
+
+        /**
+         * Fill the pixels of which the center is inside of the convex polygon, within the given rows of pixels.
+         * A pixel on the lower or left boundary of the polygon is inside, while a pixel on the upper or right
+         * boundary is not. Since neighbouring cells share the corners of their common edge, and the edge is always
+         * followed in the same direction, they agree on every pixel along the edge. Only a pixel of which the center
+         * is exactly at a Voronoi vertex where more than three cells meet may go to either of these cells, since the
+         * circum centers of the triangles around such a vertex differ by rounding errors.
+         *
+         * The polygon is not clipped to the board, such that both cells see exactly the same edge. Only the rows and
+         * columns that are filled are limited to the raster.
+         *
+         * @param corners The corners of the polygon.
+         * @param value The value to fill the pixels with.
+         * @param firstRow The first row of pixels that may be filled.
+         * @param lastRow The row of pixels after the last row that may be filled.
+         */
+        private void fill(Point2d[] corners, byte value, int firstRow, int lastRow) {
+            double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            for(Point2d corner : corners) {
+                minY = Math.min(minY, corner.y);
+                maxY = Math.max(maxY, corner.y);
+            }
+
+            // The rows of which the center is within the range of the polygon.
+            int start = (int) Math.max(firstRow, Math.ceil(minY - originY - 0.5));
+            int end = (int) Math.min(lastRow, Math.ceil(maxY - originY - 0.5));
+            for(int j = start; j < end; j++) {
+                double y = originY + j + 0.5;
+
+                // Find where the row enters and leaves the polygon.
+                double left = Double.POSITIVE_INFINITY, right = Double.NEGATIVE_INFINITY;
+                for(int k = 0; k < corners.length; k++) {
+                    Point2d a = corners[k], b = corners[k + 1 == corners.length ? 0 : k + 1];
+                    if((a.y <= y) == (b.y <= y)) continue;
+
+                    // Intersect from the lower corner, such that the cell on the other side finds the same value.
+                    if(b.y < a.y) {
+                        Point2d c = a;
+                        a = b;
+                        b = c;
+                    }
+                    double x = a.x + (y - a.y) * (b.x - a.x) / (b.y - a.y);
+                    left = Math.min(left, x);
+                    right = Math.max(right, x);
+                }
+                if(left > right) continue;
+
+                // The columns of which the center is within the row of the polygon.
+                int i0 = (int) Math.max(0, Math.ceil(left - originX - 0.5));
+                int i1 = (int) Math.min(width, Math.ceil(right - originX - 0.5));
+                fillRow(i0, i1, j, value);
+            }
+        }
+
+        /**
+         * Fill a range of pixels within a single row of pixels, and keep the counts of the tiles up to date.
+         *
+         * @param from The first column.
+         * @param to The column after the last column.
+         * @param j The row.
+         * @param value The value to fill the pixels with.
+         */
+        private void fillRow(int from, int to, int j, byte value) {
+            int offset = (j & (TILE_SIZE - 1)) << TILE_SHIFT;
+            while(from < to) {
+                int column = from >> TILE_SHIFT;
+                int end = Math.min(to, (column + 1) << TILE_SHIFT);
+                int index = (j >> TILE_SHIFT) * columns + column;
+                byte[] tile = getWritableTile(index);
+                int first = offset + (from & (TILE_SIZE - 1)), last = offset + end - (column << TILE_SHIFT);
+
+                // Take the old owners of the pixels out of the counts, and add the new owner.
+                for(int k = first; k < last; k++) {
+                    if(tile[k] == RED) redCounts[index]--;
+                    else if(tile[k] == BLUE) blueCounts[index]--;
+                }
+                if(value == RED) redCounts[index] += last - first;
+                else blueCounts[index] += last - first;
+                Arrays.fill(tile, first, last, value);
+                from = end;
+            }
+        }
+
+        /**
+         * Get a tile that may be written to, copying it when it is still shared with the old map.
+         *
+         * @param index The index of the tile.
+         * @return The tile.
+         */
+        private byte[] getWritableTile(int index) {
+            if(!copied[index]) {
+                tiles[index] = tiles[index].clone();
+                copied[index] = true;
+            }
+            return tiles[index];
+        }
+    }
+
+    /**
+     * A task that fills a range of rows of tiles, splitting the range in two when it has more than one row.
+     */
+    @SuppressWarnings("serial")
+    private static class FillTask extends RecursiveAction {
+        // The update to perform.
+        private final Update update;
+
+        // The range of rows of tiles this task should fill.
+        private final int from, to;
+
+        private FillTask(Update update, int from, int to) {
+            this.update = update;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Fill the rows of tiles in the range.
+         */
+        @Override
+        protected void compute() {
+            if(to - from > 1 && getPool() != null) {
+                // Split the range, and fill both halves at the same time.
+                int middle = (from + to) >>> 1;
+                invokeAll(new FillTask(update, from, middle), new FillTask(update, middle, to));
+                return;
+            }
+            update.fill(from, to);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package geo.voronoi;
+
+import geo.delaunay.TriangleFace;
+import geo.state.GameState;
+import geo.store.halfedge.Face;
+import geo.store.halfedge.Vertex;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of the area owned by each player, by applying the change in area of every Voronoi face that changes.
+ * The totals are kept with compensated summation, such that the rounding errors do not add up over a long game.
+ *
+ * Changes are made by a single writing thread. After a set of changes, {@link #commit()} publishes the totals, which
+ * can then be read in constant time from any thread.
+ */
+public class ScoreLedger {
+    // Whether the totals should be checked against a full recompute after every change, enabled with -Dgeo.debug.scores.
+    public static final boolean DEBUG = Boolean.getBoolean("geo.debug.scores");
+
+    // The largest difference between the running total and the recomputed total that we accept, relative to the total.
+    private static final double TOLERANCE = 1e-9;
+
+    // The area of the Voronoi face of each point, by the id of the point.
+    private final Map<Integer, Double> areas = new ConcurrentHashMap<>();
+
+    // The running totals of both players, together with the compensation for the lost low-order bits.
+    private double red, redCompensation;
+    private double blue, blueCompensation;
+
+    // The most recently committed totals.
+    private volatile Score score = new Score(0, 0);
+
+    /**
+     * Set the area of the face of the given point, and apply the difference to the total of its owner.
+     *
+     * @param point The center point of the face.
+     * @param area The new area of the face.
+     */
+    public void set(Vertex<TriangleFace> point, double area) {
+        Double old = areas.put(point.id, area);
+        add(point.player, old == null ? area : area - old);
+    }
+
+    /**
+     * Remove the face of the given point, and subtract its area from the total of its owner.
+     *
+     * @param point The center point of the face.
+     */
+    public void remove(Vertex<TriangleFace> point) {
+        Double old = areas.remove(point.id);
+        if(old != null) add(point.player, -old);
+    }
+
+    /**
+     * Forget all faces, and set the totals to zero.
+     */
+    public void clear() {
+        areas.clear();
+        red = redCompensation = blue = blueCompensation = 0;
+    }
+
+    /**
+     * Add the given amount to the total of the player, using the compensated summation of Neumaier.
+     *
+     * @param player The player that owns the face.
+     * @param delta The change in area.
+     */
+    private void add(GameState.PlayerTurn player, double delta) {
+        if(player == GameState.PlayerTurn.RED) {
+            double sum = red + delta;
+            redCompensation += Math.abs(red) >= Math.abs(delta) ? (red - sum) + delta : (delta - sum) + red;
+            red = sum;
+        } else {
+            double sum = blue + delta;
+            blueCompensation += Math.abs(blue) >= Math.abs(delta) ? (blue - sum) + delta : (delta - sum) + blue;
+            blue = sum;
+        }
+    }
+
+    /**
+     * Publish the current totals, such that they become visible to the other threads.
+     *
+     * @return The published totals.
+     */
+    public Score commit() {
+        score = new Score(red + redCompensation, blue + blueCompensation);
+        return score;
+    }
+
+    /**
+     * Get the most recently committed totals. This never blocks, and can be called from any thread.
+     *
+     * @return The totals of both players.
+     */
+    public Score getScore() {
+        return score;
+    }
+
+    /**
+     * Get the area of the face of the given point, as it was last set.
+     *
+     * @param point The center point of the face.
+     * @return The area of the face, or zero if the point has no face.
+     */
+    public double getArea(Vertex<TriangleFace> point) {
+        return areas.getOrDefault(point.id, 0d);
+    }
+
+    /**
+     * Get the amount of faces in the ledger.
+     *
+     * @return The amount of faces.
+     */
+    public int size() {
+        return areas.size();
+    }
+
+    /**
+     * Check the running totals against the totals of a complete set of recomputed faces.
+     *
+     * @param faces The recomputed faces of all points on the board.
+     * @throws IllegalStateException If the faces, their areas or the totals differ.
+     */
+    public void verify(Collection<Face> faces) {
+        // Points outside of the board have no face, and no area either.
+        long onBoard = areas.values().stream().filter(area -> area > 0).count();
+        if(faces.size() != onBoard) {
+            throw new IllegalStateException(String.format("The ledger has %d faces, while there are %d faces.",
+                    onBoard, faces.size()));
+        }
+
+        // Every face should have the area that was last set for its point, and add up the recomputed areas.
+        double expectedRed = 0, expectedBlue = 0;
+        for(Face face : faces) {
+            Double area = areas.get(face.centerPoint.id);
+            if(area == null || Math.abs(area - face.getArea()) > TOLERANCE * Math.max(1, face.getArea())) {
+                throw new IllegalStateException(String.format("The ledger has area %s for %s, while its face has " +
+                        "area %f.", area, face.centerPoint, face.getArea()));
+            }
+            if(face.centerPoint.player == GameState.PlayerTurn.RED) {
+                expectedRed += face.getArea();
+            } else {
+                expectedBlue += face.getArea();
+            }
+        }
+
+        // Compare with the running totals, allowing for the rounding errors of the recomputation itself.
+        double actualRed = red + redCompensation, actualBlue = blue + blueCompensation;
+        double tolerance = TOLERANCE * Math.max(1, expectedRed + expectedBlue);
+        if(Math.abs(actualRed - expectedRed) > tolerance || Math.abs(actualBlue - expectedBlue) > tolerance) {
+            throw new IllegalStateException(String.format("The ledger totals (%f, %f) differ from the recomputed " +
+                    "totals (%f, %f).", actualRed, actualBlue, expectedRed, expectedBlue));
+        }
+    }
+
+    /**
+     * The totals of both players at a certain moment, which never change.
+     */
+    public static final class Score {
+        // The total areas of both the red and blue faces.
+        private final double areaRed;
+        private final double areaBlue;
+
+        /**
+         * Create the totals of both players.
+         *
+         * @param areaRed The total area of the red player.
+         * @param areaBlue The total area of the blue player.
+         */
+        Score(double areaRed, double areaBlue) {
+            this.areaRed = areaRed;
+            this.areaBlue = areaBlue;
+        }
+
+        /**
+         * Get the amount of area the red player owns.
+         *
+         * @return The total area in pixels of the red player.
+         */
+        public double getAreaRed() {
+            return areaRed;
+        }
+
+        /**
+         * Get the amount of area the blue player owns.
+         *
+         * @return The total area in pixels of the blue player.
+         */
+        public double getAreaBlue() {
+            return areaBlue;
+        }
+    }
+}
@@ -7,113 +7,331 @@ import geo.store.halfedge.Edge;
 import geo.store.halfedge.Face;
 import geo.store.halfedge.Vertex;
 import geo.store.math.Point2d;
-import geo.util.SutherlandHodgmanClipping;
+import geo.store.math.Rectangle2d;
+import geo.util.ConvexClipping;
 
-import java.awt.*;
 import java.util.List;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Class representing a Voronoi diagram, which is represented as a DAG.
+ *
+ * The diagram is described by the cells of its points. The faces are created as a single half-edge structure, in which
+ * neighbouring faces share their vertices and edges, the first time they are asked for.
+ *
+ * A diagram that is kept up to date by a {@link VoronoiMaintainer} only knows the cells that changed since the
+ * previous diagram. The complete set of cells and the ownership map are put together from the diagrams before it when
+ * they are first asked for, such that moves for which nobody looks at the diagram only pay for their changed cells.
  */
 public class VoronoiDiagram extends DAG<Point2d> {
-    // Keep a list of voronoi faces.
-    List<Face> faces = new ArrayList<>();
+    // Ranges with at most this many vertices are handled by a single task when building in parallel.
+    private static final int SEQUENTIAL_THRESHOLD = 1024;
 
-    // Already created edges.
-    HashMap<Integer, HashMap<Integer, Edge<Face>>> edgeMap = new HashMap<>();
+    // The amount of changed cells from which on the ownership map is filled in parallel.
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    // The amount of diagrams we look back for an ownership map that is worth keeping the history for.
+    private static final int MAP_HISTORY_LIMIT = 64;
+
+    // The cells of all points in the diagram, which are put together when they are first asked for.
+    private volatile CellSet cellSet;
+
+    // The diagram this diagram was derived from, which is forgotten once everything has been put together.
+    private volatile VoronoiDiagram previous;
+
+    // The cells that have been created since the previous diagram, and the ids of the points that have been removed.
+    private final List<Cell> changed;
+    private final List<Integer> removed;
+
+    // Whether the diagram starts over without any cells and with an empty ownership map.
+    private final boolean reset;
+
+    // The amount of cells in the diagram.
+    private final int size;
+
+    // The rectangle the cells are clipped to.
+    private final Rectangle2d clippingArea;
 
     // The total areas of both the red and blue faces.
     private final double areaRed;
     private final double areaBlue;
 
+    // The half-edge structure of the diagram, which is created when it is first asked for.
+    private volatile Structure structure;
+
+    // The owners of the pixels of the board, which is created when it is first asked for unless it is maintained.
+    private volatile OwnershipMap ownership;
+
     /**
      * Create a Voronoi diagram, based on the faces in the Delaunay triangulation.
      *
      * @param vertices The vertices in the Delaunay triangulation.
+     * @param clippingArea The rectangle to clip the cells to.
      */
-    public VoronoiDiagram(List<Vertex<TriangleFace>> vertices) {
-        // Counters for the areas.
-        double areaRed = 0;
-        double areaBlue = 0;
+    public VoronoiDiagram(List<Vertex<TriangleFace>> vertices, Rectangle2d clippingArea) {
+        this(vertices, clippingArea, null);
+    }
 
-        // We want to iterate over all of the vertices, and then find all the circum centers in the surrounding faces.
-        for (Vertex<TriangleFace> vertex : vertices) {
-            if (vertex instanceof Vertex.SymbolicVertex) {
-                // We don't want symbolic vertices.
-                continue;
-            }
+    /**
+     * Create a Voronoi diagram, based on the faces in the Delaunay triangulation, of which the cells are created
+     * concurrently on the given pool. Every task adds up the areas of its own cells, so no state is shared.
+     *
+     * @param vertices The vertices in the Delaunay triangulation, which should not change during the construction.
+     * @param clippingArea The rectangle to clip the cells to.
+     * @param pool The pool on which the cells are created, or null to create them on the calling thread.
+     */
+    public VoronoiDiagram(List<Vertex<TriangleFace>> vertices, Rectangle2d clippingArea, ForkJoinPool pool) {
+        this.clippingArea = clippingArea;
+        Cell[] created = new Cell[vertices.size()];
+        double[] areas = createCells(vertices, clippingArea, created, pool);
 
-            // For each vertex, we want to create a half-edge face between the circum circles.
-            List<Edge<TriangleFace>> edges = vertex.edges();
+        // Symbolic vertices do not get a cell.
+        List<Cell> cells = new ArrayList<>(created.length);
+        for(Cell cell : created) {
+            if(cell != null) cells.add(cell);
+        }
+        this.cellSet = new CellSet(Collections.unmodifiableList(cells), null);
+        this.changed = Collections.emptyList();
+        this.removed = Collections.emptyList();
+        this.reset = false;
+        this.size = cells.size();
 
-            // Create an list that will contain the edges between circum centers surrounding the edge.
-            List<Edge<Face>> vEdges = new ArrayList<>();
+        // Set the area counters.
+        this.areaRed = areas[0];
+        this.areaBlue = areas[1];
+    }
 
-            // Gather all circum circle centers.
-            List<Point2d> circumCenters = edges.stream().map(e -> e.incidentFace.cc).collect(Collectors.toList());
+    /**
+     * Create a Voronoi diagram that consists of cells that have already been created.
+     *
+     * @param cells The cells of the diagram, which should not be changed afterwards.
+     * @param clippingArea The rectangle the cells have been clipped to.
+     * @param areaRed The total area of the cells of the red player.
+     * @param areaBlue The total area of the cells of the blue player.
+     */
+    VoronoiDiagram(List<Cell> cells, Rectangle2d clippingArea, double areaRed, double areaBlue) {
+        this.cellSet = new CellSet(cells, null);
+        this.changed = Collections.emptyList();
+        this.removed = Collections.emptyList();
+        this.reset = false;
+        this.size = cells.size();
+        this.clippingArea = clippingArea;
+        this.areaRed = areaRed;
+        this.areaBlue = areaBlue;
+    }
 
-            // Now we have to make sure that the vertices are in range of the window.
-            List<Vertex<Face>> vVertices = SutherlandHodgmanClipping.clipPolygon(circumCenters).stream().map(
-                    (Function<Point2d, Vertex<Face>>) Vertex::new).collect(Collectors.toList());
+    /**
+     * Create a Voronoi diagram that differs from the given diagram in a few cells only.
+     *
+     * @param previous The diagram before the change, or null if the diagram starts over.
+     * @param changed The cells that have been created since the previous diagram, which replace the old cells of
+     *                their points.
+     * @param removed The ids of the points that are no longer part of the diagram.
+     * @param reset Whether the diagram starts over, such that the changed cells are all cells of the diagram.
+     * @param size The amount of cells in the diagram.
+     * @param clippingArea The rectangle the cells have been clipped to, which can only change when starting over.
+     * @param areaRed The total area of the cells of the red player.
+     * @param areaBlue The total area of the cells of the blue player.
+     */
+    VoronoiDiagram(VoronoiDiagram previous, List<Cell> changed, List<Integer> removed, boolean reset, int size,
+                   Rectangle2d clippingArea, double areaRed, double areaBlue) {
+        this.previous = reset ? null : previous;
+        this.changed = changed;
+        this.removed = removed;
+        this.reset = reset || previous == null;
+        this.size = size;
+        this.clippingArea = clippingArea;
+        this.areaRed = areaRed;
+        this.areaBlue = areaBlue;
+    }
 
-            // Create an edge between each of the Voronoi vertices.
-            for (int i = 0; i < vVertices.size(); i++) {
-                Vertex<Face> v1 = vVertices.get(i);
-                Vertex<Face> v2 = vVertices.get((i + 1) % vVertices.size());
-                Edge<Face> edge = edgeMap.getOrDefault(v1.id, new HashMap<>()).getOrDefault(v2.id, new Edge<>(v1, v2));
-                vEdges.add(edge);
+    /**
+     * Create the cells of the given vertices, and add up their areas per player.
+     *
+     * @param vertices The vertices in the Delaunay triangulation.
+     * @param area The rectangle to clip the cells to.
+     * @param cells The array in which the cell of the i-th vertex is stored at index i, or null if it is symbolic.
+     * @param pool The pool on which the cells are created, or null to create them on the calling thread.
+     * @return The total area of the red cells, followed by the total area of the blue cells.
+     */
+    static double[] createCells(List<Vertex<TriangleFace>> vertices, Rectangle2d area, Cell[] cells, ForkJoinPool pool) {
+        CellTask task = new CellTask(vertices, area, cells, 0, vertices.size());
+        return pool == null ? task.compute() : pool.invoke(task);
+    }
 
-                // Store the twin of the edge.
-                if (!edgeMap.containsKey(v2.id)) {
-                    edgeMap.put(v2.id, new HashMap<>());
+    /**
+     * Get the cells of all points in the diagram, putting them together when they are asked for the first time.
+     *
+     * @return The cells, in order of the ids of their points when the diagram has been kept up to date.
+     */
+    List<Cell> getCells() {
+        CellSet result = cellSet;
+        if(result == null) {
+            synchronized(this) {
+                result = cellSet;
+                if(result == null) {
+                    result = createCellSet();
+                    cellSet = result;
+                    releaseHistory();
                 }
-
-                // Add the twin.
-                edgeMap.get(v2.id).put(v1.id, edge.twin);
             }
+        }
+        return result.cells;
+    }
 
-            // Create a face using these edges.
-            Face face = new Face(vertex, vEdges);
-            faces.add(face);
-
-            // Add the area of the new face to the owner.
-            if(vertex.player == GameState.PlayerTurn.RED) {
-                areaRed += face.getArea();
+    /**
+     * Put the cells together, starting from the closest diagram before this one of which the cells are known.
+     *
+     * @return The cells of the diagram.
+     */
+    private CellSet createCellSet() {
+        // Walk back until we find a diagram of which the cells are known, or which starts over.
+        Deque<VoronoiDiagram> chain = new ArrayDeque<>();
+        TreeMap<Integer, Cell> cells = null;
+        VoronoiDiagram diagram = this;
+        while(cells == null) {
+            CellSet known = diagram == this ? null : diagram.cellSet;
+            VoronoiDiagram before = diagram.previous;
+            if(known != null) {
+                cells = known.copy();
+            } else if(diagram.reset) {
+                chain.push(diagram);
+                cells = new TreeMap<>();
+            } else if(before == null) {
+                // The history is only forgotten after the cells have been put together, so they are known now.
+                cells = diagram.cellSet.copy();
             } else {
-                areaBlue += face.getArea();
+                chain.push(diagram);
+                diagram = before;
             }
         }
 
-        // Set the area counters.
-        this.areaRed = areaRed;
-        this.areaBlue = areaBlue;
+        // Apply the changes in the order in which they were made.
+        for(VoronoiDiagram step : chain) {
+            for(Integer id : step.removed) {
+                cells.remove(id);
+            }
+            for(Cell cell : step.changed) {
+                cells.put(cell.site.id, cell);
+            }
+        }
+        return new CellSet(Collections.unmodifiableList(new ArrayList<>(cells.values())), cells);
+    }
+
+    /**
+     * Forget the diagram before this one, once the cells have been put together. The history is only kept while a
+     * recent diagram has an ownership map, since updating that map is much cheaper than filling a new one from the
+     * cells. Without such a map, nobody is drawing the owners, and the map is filled from the cells when it is asked
+     * for. Should only be called while holding the lock of the diagram.
+     */
+    private void releaseHistory() {
+        if(cellSet != null && (ownership != null || !hasRecentOwnershipMap())) previous = null;
     }
 
     /**
-     * Draw the shape.
+     * Check whether one of the diagrams shortly before this one has an ownership map from which the map of this
+     * diagram can be updated.
      *
-     * @param g The graphics object to draw in.
+     * @return Whether a map is known within the last few diagrams, up to the most recent reset.
      */
-    public void draw(Graphics2D g) {
-        // Simply draw all the faces and the edges...
-        for (Face face : faces) {
-            // Draw the face first.
-            face.drawFace(g);
+    private boolean hasRecentOwnershipMap() {
+        VoronoiDiagram diagram = this;
+        for(int i = 0; i < MAP_HISTORY_LIMIT && !diagram.reset; i++) {
+            diagram = diagram.previous;
+            if(diagram == null) return false;
+            if(diagram.ownership != null) return true;
         }
+        return false;
+    }
 
-        // Now draw all the edges, in black.
-        g.setColor(Color.black);
+    /**
+     * Get the half-edge structure of the diagram, creating it when it is asked for the first time.
+     *
+     * @return The half-edge structure.
+     */
+    private Structure getStructure() {
+        Structure result = structure;
+        if(result == null) {
+            List<Cell> cells = getCells();
+            synchronized(this) {
+                result = structure;
+                if(result == null) {
+                    result = new Structure(cells, clippingArea);
+                    structure = result;
+                }
+            }
+        }
+        return result;
+    }
 
-        // Draw all edges.
-        for (Face face : faces) {
-            for (Edge<Face> edge : face) {
-                edge.drawEdge(g);
+    /**
+     * Get the owners of the pixels of the board, creating the map when it is asked for the first time.
+     *
+     * @return The map of the owners of the pixels.
+     */
+    public OwnershipMap getOwnershipMap() {
+        OwnershipMap result = ownership;
+        if(result == null) {
+            synchronized(this) {
+                result = ownership;
+                if(result == null) {
+                    result = createOwnershipMap();
+                    ownership = result;
+                    releaseHistory();
+                }
             }
         }
+        return result;
+    }
+
+    /**
+     * Create the ownership map by updating the map of the closest diagram before this one of which the map is known,
+     * with the cells that changed since. When there is no such diagram, the map is filled with all cells.
+     *
+     * @return The map of the owners of the pixels.
+     */
+    private OwnershipMap createOwnershipMap() {
+        // Walk back until we find a diagram of which the map is known, or which starts over.
+        Deque<VoronoiDiagram> chain = new ArrayDeque<>();
+        OwnershipMap map = null;
+        VoronoiDiagram diagram = this;
+        while(map == null) {
+            OwnershipMap known = diagram == this ? null : diagram.ownership;
+            VoronoiDiagram before = diagram.previous;
+            if(known != null) {
+                map = known;
+            } else if(diagram.size == 0) {
+                // Without any cells, no pixel is owned at all.
+                map = new OwnershipMap(diagram.clippingArea);
+            } else if(diagram.reset) {
+                chain.push(diagram);
+                map = new OwnershipMap(diagram.clippingArea);
+            } else if(before == null) {
+                // The cells of a diagram without history are known, so they can be drawn all at once. This is also
+                // the case when the history was forgotten while nobody asked for a map.
+                map = new OwnershipMap(diagram.clippingArea).update(diagram.getCells(), null);
+            } else {
+                chain.push(diagram);
+                diagram = before;
+            }
+        }
+
+        // Only the pixels of the changed cells change owner, since together they cover the area they covered before.
+        for(VoronoiDiagram step : chain) {
+            map = map.update(step.changed, step.changed.size() >= PARALLEL_THRESHOLD
+                    ? ForkJoinPool.commonPool() : null);
+        }
+        return map;
     }
 
     /**
@@ -134,9 +352,204 @@ public class VoronoiDiagram extends DAG<Point2d> {
         return areaBlue;
     }
 
+    /**
+     * Get the point of the given player that has the largest cell. Only the areas of the cells are used, so the faces
+     * of the diagram are not created.
+     *
+     * @param player The player of which we want the point.
+     * @return The point with the largest cell, or null if the player has no points.
+     */
+    public Vertex<TriangleFace> getLargestPoint(GameState.PlayerTurn player) {
+        Cell largest = null;
+        for(Cell cell : getCells()) {
+            if(cell.site.player == player && (largest == null || cell.area > largest.area)) largest = cell;
+        }
+        return largest == null ? null : largest.site;
+    }
+
     /**
      * Get the list of faces that make up this diagram.
      * @return List of faces.
      */
-    public List<Face> getFaces() { return faces; }
+    public List<Face> getFaces() { return getStructure().faces; }
+
+    /**
+     * Get the vertices of the faces. Each circum center is a single vertex, shared by the faces around it.
+     *
+     * @return List of vertices.
+     */
+    public List<Vertex<Face>> getVertices() {
+        return getStructure().vertices;
+    }
+
+    /**
+     * Get the edges of the faces, of which only one half-edge of each twin pair is included. Drawing these draws
+     * every edge exactly once.
+     *
+     * @return List of half-edges.
+     */
+    public List<Edge<Face>> getEdges() {
+        return getStructure().edges;
+    }
+
+    /**
+     * Get the face of the given point.
+     *
+     * @param point A point in the diagram.
+     * @return The face of which the point is the center, or null if the point is not part of the diagram or is not
+     *         on the board.
+     */
+    public Face getFace(Vertex<TriangleFace> point) {
+        return getStructure().facesByPoint.get(point.id);
+    }
+
+    /**
+     * Get the faces that share an edge with the given face.
+     *
+     * @param face A face in the diagram.
+     * @return The neighbouring faces, in the order of the edges of the face.
+     */
+    public List<Face> getNeighbours(Face face) {
+        Set<Face> neighbours = new LinkedHashSet<>();
+        for(Edge<Face> edge : face) {
+            // The twins of the edges along the border of the board have no face.
+            Face neighbour = edge.twin.incidentFace;
+            if(neighbour != null && neighbour != face) neighbours.add(neighbour);
+        }
+        return new ArrayList<>(neighbours);
+    }
+
+    /**
+     * Get the amount of points in the diagram, without putting the cells together.
+     *
+     * @return The amount of cells.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The cells of a diagram, both as a list and by the id of their point.
+     */
+    private static class CellSet {
+        // The cells in order.
+        private final List<Cell> cells;
+
+        // The cells by the id of their point, or null if they are not known by id.
+        private final TreeMap<Integer, Cell> byPoint;
+
+        private CellSet(List<Cell> cells, TreeMap<Integer, Cell> byPoint) {
+            this.cells = cells;
+            this.byPoint = byPoint;
+        }
+
+        /**
+         * Create a copy of the cells by the id of their point, which can be changed.
+         *
+         * @return The cells by the id of their point.
+         */
+        private TreeMap<Integer, Cell> copy() {
+            // Copying a sorted map takes linear time.
+            if(byPoint != null) return new TreeMap<>(byPoint);
+            TreeMap<Integer, Cell> result = new TreeMap<>();
+            for(Cell cell : cells) {
+                result.put(cell.site.id, cell);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * A task that creates the cells of a range of vertices, splitting the range in two when it is large.
+     */
+    @SuppressWarnings("serial")
+    private static class CellTask extends RecursiveTask<double[]> {
+        // The vertices, the board to clip to and the array in which the cells are stored.
+        private final List<Vertex<TriangleFace>> vertices;
+        private final Rectangle2d area;
+        private final Cell[] cells;
+
+        // The range of vertices this task should create the cells of.
+        private final int from, to;
+
+        private CellTask(List<Vertex<TriangleFace>> vertices, Rectangle2d area, Cell[] cells, int from, int to) {
+            this.vertices = vertices;
+            this.area = area;
+            this.cells = cells;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Create the cells in the range.
+         *
+         * @return The total area of the red cells in the range, followed by the total area of the blue cells.
+         */
+        @Override
+        protected double[] compute() {
+            if(to - from > SEQUENTIAL_THRESHOLD && getPool() != null) {
+                // Split the range, and add up the areas of both halves.
+                int middle = (from + to) >>> 1;
+                CellTask left = new CellTask(vertices, area, cells, from, middle);
+                left.fork();
+                double[] right = new CellTask(vertices, area, cells, middle, to).compute();
+                double[] areas = left.join();
+                areas[0] += right[0];
+                areas[1] += right[1];
+                return areas;
+            }
+
+            // The areas are added up locally, and only combined when the tasks are joined.
+            double[] areas = new double[2];
+            ConvexClipping clipper = new ConvexClipping(area);
+            for(int i = from; i < to; i++) {
+                Vertex<TriangleFace> vertex = vertices.get(i);
+
+                // We don't want symbolic vertices.
+                if(vertex instanceof Vertex.SymbolicVertex) continue;
+
+                // Create the cell, and add its area to the owner.
+                cells[i] = Cell.create(vertex, clipper);
+                areas[vertex.player == GameState.PlayerTurn.RED ? 0 : 1] += cells[i].area;
+            }
+            return areas;
+        }
+    }
+
+    /**
+     * The half-edge structure of the diagram, which is never changed after it has been created.
+     */
+    private static class Structure {
+        // The faces of the points, in the same order as the cells.
+        private final List<Face> faces;
+
+        // The faces by the id of their center point.
+        private final Map<Integer, Face> facesByPoint;
+
+        // The shared vertices, and one half-edge of each pair.
+        private final List<Vertex<Face>> vertices;
+        private final List<Edge<Face>> edges;
+
+        /**
+         * Create the faces of the given cells.
+         *
+         * @param cells The cells of the diagram.
+         * @param clippingArea The rectangle the cells have been clipped to.
+         */
+        private Structure(List<Cell> cells, Rectangle2d clippingArea) {
+            DiagramBuilder builder = new DiagramBuilder(clippingArea);
+            List<Face> faces = new ArrayList<>(cells.size());
+            facesByPoint = new HashMap<>();
+            for(Cell cell : cells) {
+                // Points outside of the board have no face.
+                Face face = builder.build(cell);
+                if(face == null) continue;
+                faces.add(face);
+                facesByPoint.put(cell.site.id, face);
+            }
+            this.faces = Collections.unmodifiableList(faces);
+            this.vertices = Collections.unmodifiableList(builder.vertices);
+            this.edges = Collections.unmodifiableList(builder.edges);
+        }
+    }
 }
\ No newline at end of file
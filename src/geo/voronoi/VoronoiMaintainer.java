@@ -0,0 +1,291 @@
+package geo.voronoi;
+
+import geo.delaunay.MeshListener;
+import geo.delaunay.TriangleFace;
+import geo.state.GameState;
+import geo.store.halfedge.Edge;
+import geo.store.halfedge.Vertex;
+import geo.store.math.Rectangle2d;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Keeps the Voronoi diagram of a triangulation up to date, by only recomputing the cells of the vertices of which the
+ * surrounding Delaunay faces have changed. Inserting or removing a point thus only recomputes the cell of the point
+ * and those of its Delaunay neighbours, instead of every cell in the diagram.
+ *
+ * Only the cells and the areas are computed eagerly, since the score is part of every state of the game. The diagram
+ * that is returned only holds the changed cells, such that the complete set of cells, the faces and the owners of the
+ * pixels are only put together when they are asked for.
+ *
+ * The maintainer should be registered as a listener of the mesh before any vertices are inserted.
+ */
+public class VoronoiMaintainer implements MeshListener {
+    // The amount of changed cells from which on the cells are created in parallel.
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    // The amount of diagrams after which the cells are put together, whether asked for or not. This limits the amount
+    // of changes that have to be applied when they are asked for, and the history kept alive. The owners of the pixels
+    // are never put together here, since filling the board is wasted work when nobody draws it.
+    private static final int HISTORY_LIMIT = 64;
+
+    // The cells of the diagram, by the id of their center point, such that the cells are in order of creation.
+    private final TreeMap<Integer, Cell> cells = new TreeMap<>();
+
+    // The vertices of which the cell has to be recomputed.
+    private final Set<Vertex<TriangleFace>> dirty = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // Keeps track of the areas of the cells, and the totals of both players.
+    private final ScoreLedger ledger;
+
+    // The rectangle the cells were clipped to.
+    private Rectangle2d clippingArea;
+
+    // The ids of the points that have been removed since the previous update.
+    private final List<Integer> removed = new ArrayList<>();
+
+    // Whether all cells have been forgotten since the previous update.
+    private boolean rebuilt = true;
+
+    // The amount of diagrams that have been created since the cells were last put together.
+    private int history;
+
+    // The most recently created diagram, which is reused while nothing changes.
+    private VoronoiDiagram diagram;
+
+    /**
+     * Create a maintainer for an empty triangulation.
+     *
+     * @param ledger The ledger in which the areas of the faces are kept, which is cleared. The totals that have been
+     *               committed stay visible until the first update commits the totals of the new triangulation.
+     */
+    public VoronoiMaintainer(ScoreLedger ledger) {
+        this.ledger = ledger;
+        ledger.clear();
+    }
+
+    /**
+     * Mark the corners of the original and the replacement faces, since their Voronoi faces have changed.
+     *
+     * @param original The faces that have been removed from the triangulation.
+     * @param replacement The faces that have taken their place, which together cover the same area.
+     */
+    @Override
+    public void facesReplaced(List<TriangleFace> original, List<TriangleFace> replacement) {
+        markCorners(original);
+        markCorners(replacement);
+    }
+
+    /**
+     * Forget all faces, and mark all the vertices of the new triangulation.
+     *
+     * @param faces The faces of the new triangulation, excluding the outer face.
+     */
+    @Override
+    public void meshRebuilt(Collection<TriangleFace> faces) {
+        cells.clear();
+        ledger.clear();
+        removed.clear();
+        rebuilt = true;
+        markCorners(faces);
+    }
+
+    /**
+     * Mark the corner points of the given faces, except for the symbolic vertices.
+     *
+     * @param faces The faces of which the corners should be recomputed.
+     */
+    private void markCorners(Collection<TriangleFace> faces) {
+        for(TriangleFace face : faces) {
+            for(Edge<TriangleFace> e : face.getOriginalEdges()) {
+                if(!(e.origin instanceof Vertex.SymbolicVertex)) dirty.add(e.origin);
+            }
+        }
+    }
+
+    /**
+     * Recompute the cells of all marked vertices, and get the resulting Voronoi diagram.
+     * When the board has been resized since the previous update, all cells are recomputed.
+     *
+     * @param area The rectangle to clip the cells to.
+     * @return A Voronoi diagram that is never changed afterwards. Cells that did not change are shared with the
+     *         diagram returned by the previous update, while the faces of the diagram are only created when asked for.
+     */
+    public VoronoiDiagram update(Rectangle2d area) {
+        // Cells are clipped to the board, so all of them change when the board does.
+        if(!area.equals(clippingArea)) {
+            clippingArea = area;
+            rebuilt = true;
+            for(Cell cell : cells.values()) {
+                dirty.add(cell.site);
+            }
+        }
+
+        // Nothing changed, so the previous diagram is still valid.
+        if(diagram != null && dirty.isEmpty()) return diagram;
+
+        // Vertices that have been removed from the mesh no longer have a cell.
+        List<Vertex<TriangleFace>> changed = new ArrayList<>(dirty.size());
+        for(Vertex<TriangleFace> vertex : dirty) {
+            if(vertex.incidentEdge == null) {
+                if(cells.remove(vertex.id) != null) removed.add(vertex.id);
+                ledger.remove(vertex);
+            } else {
+                changed.add(vertex);
+            }
+        }
+
+        // Create the new cells, concurrently when there are many of them, e.g. after a rebuild or a resize.
+        Cell[] created = new Cell[changed.size()];
+        ForkJoinPool pool = changed.size() >= PARALLEL_THRESHOLD ? ForkJoinPool.commonPool() : null;
+        VoronoiDiagram.createCells(changed, clippingArea, created, pool);
+
+        // Apply the change in area to the owners on this thread, since the ledger has a single writer.
+        for(Cell cell : created) {
+            cells.put(cell.site.id, cell);
+            ledger.set(cell.site, cell.area);
+        }
+        dirty.clear();
+
+        // The new diagram only remembers what changed, and puts the rest together from the previous diagram.
+        ScoreLedger.Score score = ledger.commit();
+        diagram = new VoronoiDiagram(diagram, Arrays.asList(created), new ArrayList<>(removed), rebuilt, cells.size(),
+                clippingArea, score.getAreaRed(), score.getAreaBlue());
+        removed.clear();
+        rebuilt = false;
+
+        // Put the diagram together every now and then, such that the chain of diagrams before it can be forgotten.
+        if(++history >= HISTORY_LIMIT) {
+            history = 0;
+            diagram.getCells();
+        }
+        return diagram;
+    }
+
+    /**
+     * Check the areas, the cells and the owners of the pixels of the diagram created by the most recent update against
+     * a diagram that is computed from scratch. The points should come from the owner of the board instead of from the
+     * maintainer itself, such that points of which the cell was never created or wrongly removed are noticed.
+     *
+     * @param points All points on the board.
+     * @throws IllegalStateException If the diagram does not match the one computed from scratch.
+     */
+    public void verify(List<Vertex<TriangleFace>> points) {
+        // Every point should have a cell, and no cells should be left behind for points that are gone.
+        Set<Integer> ids = new TreeSet<>();
+        points.forEach(p -> ids.add(p.id));
+        if(!ids.equals(cells.keySet())) {
+            throw new IllegalStateException(String.format("The maintainer has cells for %d points, while there are " +
+                    "%d points on the board.", cells.size(), ids.size()));
+        }
+
+        VoronoiDiagram expected = new VoronoiDiagram(points, clippingArea);
+        ledger.verify(expected.getFaces());
+
+        // The cells that have been put together should be the cells the maintainer has.
+        if(!diagram.getCells().equals(new ArrayList<>(cells.values()))) {
+            throw new IllegalStateException("The cells of the diagram differ from the cells of the maintainer.");
+        }
+
+        // The pixels should have the same owners as when the whole board is filled again.
+        OwnershipMap ownership = diagram.getOwnershipMap();
+        OwnershipMap map = expected.getOwnershipMap();
+        for(int j = 0; j < map.height; j++) {
+            for(int i = 0; i < map.width; i++) {
+                if(map.getValue(i, j) != ownership.getValue(i, j)) verifyTie(ownership, points, i, j);
+            }
+        }
+
+        // The pixels owned by each player should add up to the area in the ledger.
+        verifyPixelAreas(ownership, diagram.getCells());
+    }
+
+    /**
+     * Check that the amount of pixels owned by each player matches the committed area of that player. A pixel belongs
+     * to the cell that contains its center, so only the pixels along the edges of a cell can differ from its area.
+     * The difference is therefore bounded by the perimeters of the cells, which are at most the perimeter of the board
+     * after clipping.
+     *
+     * @param ownership The owners of the pixels.
+     * @param cells All cells in the diagram.
+     * @throws IllegalStateException If the amount of pixels of a player differs too much from its area.
+     */
+    private void verifyPixelAreas(OwnershipMap ownership, List<Cell> cells) {
+        double redTolerance = 0, blueTolerance = 0;
+        double board = 2 * (ownership.width + ownership.height);
+        for(Cell cell : cells) {
+            double perimeter = 0;
+            for(int i = 0; i < cell.corners.length; i++) {
+                perimeter += cell.corners[i].distance(cell.corners[(i + 1) % cell.corners.length]);
+            }
+
+            // Allow a few pixels more for the corners of the cell.
+            double tolerance = Math.min(perimeter, board) + 4;
+            if(cell.site.player == GameState.PlayerTurn.RED) {
+                redTolerance += tolerance;
+            } else {
+                blueTolerance += tolerance;
+            }
+        }
+
+        ScoreLedger.Score score = ledger.getScore();
+        long red = ownership.getArea(GameState.PlayerTurn.RED), blue = ownership.getArea(GameState.PlayerTurn.BLUE);
+        if(Math.abs(red - score.getAreaRed()) > redTolerance || Math.abs(blue - score.getAreaBlue()) > blueTolerance) {
+            throw new IllegalStateException(String.format("The players own (%d, %d) pixels, while the ledger has " +
+                    "areas (%f, %f).", red, blue, score.getAreaRed(), score.getAreaBlue()));
+        }
+    }
+
+    /**
+     * Check that a pixel that got another owner than in a recomputed map is at the same distance of points of both
+     * players. This happens when the center of the pixel is exactly at a Voronoi vertex where more than three cells
+     * meet, such as the center of four points on a square, in which case either player may own it.
+     *
+     * @param ownership The map of which the pixel should be checked.
+     * @param points All points in the diagram.
+     * @param i The column of the pixel in the map.
+     * @param j The row of the pixel in the map.
+     * @throws IllegalStateException If the owner of the pixel is not one of the players with a nearest point.
+     */
+    private static void verifyTie(OwnershipMap ownership, List<Vertex<TriangleFace>> points, int i, int j) {
+        double x = ownership.originX + i + 0.5, y = ownership.originY + j + 0.5;
+
+        // Find the distance to the nearest point of both players.
+        double red = Double.POSITIVE_INFINITY, blue = Double.POSITIVE_INFINITY;
+        for(Vertex<TriangleFace> point : points) {
+            double distance = (point.x - x) * (point.x - x) + (point.y - y) * (point.y - y);
+            if(point.player == GameState.PlayerTurn.RED) {
+                red = Math.min(red, distance);
+            } else {
+                blue = Math.min(blue, distance);
+            }
+        }
+
+        // The owner of the pixel should have a point that is at least as close as all other points.
+        double nearest = Math.min(red, blue), tolerance = 1e-9 * Math.max(1, nearest);
+        byte owner = ownership.getValue(i, j);
+        if(owner != OwnershipMap.RED && owner != OwnershipMap.BLUE
+                || (owner == OwnershipMap.RED ? red : blue) > nearest + tolerance) {
+            throw new IllegalStateException(String.format("The owner of pixel (%d, %d) is %d, while the nearest " +
+                    "point is at %f from red and at %f from blue.", i, j, owner, Math.sqrt(red), Math.sqrt(blue)));
+        }
+    }
+
+    /**
+     * Get the amount of cells in the diagram after the most recent update.
+     *
+     * @return The amount of cells.
+     */
+    public int size() {
+        return cells.size();
+    }
+}